@@ -1,4 +1,11 @@
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
 
 class Heap
 {
@@ -108,126 +115,361 @@ class Heap
      
 }//End of Heap Class
 
-class Graph {
-    class Node {
-        public int vert;
-        public int wgt;
-        public Node next;
+//EdgeList Class - a growable list of weighted edges kept in primitive arrays
+//Used to collect the edges of a graph before the adjacency lists are built
+class EdgeList
+{
+    public int[] u, v, w;  // edge k is u[k]--(w[k])--v[k]
+    public int size;       // number of edges in the list
+
+    public EdgeList(int capacity)
+    {
+        if(capacity < 1)
+            capacity = 1;
+        u = new int[capacity];
+        v = new int[capacity];
+        w = new int[capacity];
+        size = 0;
+    }
+
+    //add Method - appends the edge x--(wgt)--y, doubling the arrays when they are full
+    public void add(int x, int y, int wgt)
+    {
+        if(size == u.length)
+        {
+            u = Arrays.copyOf(u, 2*size);
+            v = Arrays.copyOf(v, 2*size);
+            w = Arrays.copyOf(w, 2*size);
+        }
+        u[size] = x;
+        v[size] = y;
+        w[size] = wgt;
+        ++size;
+    }//End of add Method
+
+}//End of EdgeList Class
+
+//EdgeFileReader Class - reads the integers of a graph text file straight from a memory mapped copy of the file
+//The bytes are scanned in place so no Strings are created while the edges are read.
+//Files bigger than one mapping are read through a window that is moved along the file as it is used up
+class EdgeFileReader implements Closeable
+{
+    private static final long WINDOW = 1L << 28; // bytes mapped at a time
+
+    private FileChannel channel;
+    private boolean ownsChannel;   // true if close() should close the channel
+    private ByteBuffer buf = ByteBuffer.allocate(0); // empty until the first window is mapped, so an empty file reads as its end
+    private long next;             // file position of the first byte after the current window
+    private long end;              // reading stops at this file position
+
+    //Opens the whole of the file for reading
+    public EdgeFileReader(String fileName) throws IOException
+    {
+        this(FileChannel.open(Paths.get(fileName), StandardOpenOption.READ), 0, -1);
+        ownsChannel = true;
     }
+
+    //Reads the bytes start .. end-1 of an open channel, an end of -1 means the end of the file
+    public EdgeFileReader(FileChannel channel, long start, long end) throws IOException
+    {
+        this.channel = channel;
+        this.end = end < 0 ? channel.size() : end;
+        next = start;
+        map();
+    }
+
+    //map Method - maps the next window of the file, returns false if there is nothing left to read
+    private boolean map() throws IOException
+    {
+        if(next >= end)
+            return false;
+        long len = Math.min(WINDOW, end - next);
+        buf = channel.map(FileChannel.MapMode.READ_ONLY, next, len);
+        next += len;
+        return true;
+    }
+
+    //read Method - returns the next byte of the file or -1 at the end
+    private int read() throws IOException
+    {
+        if(!buf.hasRemaining() && !map())
+            return -1;
+        return buf.get();
+    }
+
+    //position Method - returns the file position of the next byte to be read
+    public long position()
+    {
+        return next - buf.remaining();
+    }
+
+    //hasNextInt Method - skips any white space and returns true if there is another number to read
+    public boolean hasNextInt() throws IOException
+    {
+        int c;
+        do
+        {
+            c = read();
+            if(c < 0)
+                return false;
+        } while(c <= ' ');
+        buf.position(buf.position() - 1); // leave the first character of the number to be read
+        return true;
+    }
+
+    //nextInt Method - parses the next number in the file
+    public int nextInt() throws IOException
+    {
+        int c, n = 0;
+        boolean negative = false;
+
+        if(!hasNextInt())
+            throw new EOFException("Unexpected end of graph file");
+        c = read();
+        if(c == '-')
+        {
+            negative = true;
+            c = read();
+        }
+        if(c < '0' || c > '9')
+            throw new IOException("Unexpected character '" + (char)c + "' at byte " + (position() - 1) + " of graph file");
+        while(c >= '0' && c <= '9')
+        {
+            n = 10*n + (c - '0');
+            c = read();
+        }
+        if(c > ' ')
+            throw new IOException("Unexpected character '" + (char)c + "' at byte " + (position() - 1) + " of graph file");
+        return negative ? -n : n;
+    }//End of nextInt Method
+
+    public void close() throws IOException
+    {
+        if(ownsChannel)
+            channel.close();
+    }
+
+}//End of EdgeFileReader Class
+
+//TraversalListener Interface - told about each step of the graph traversals
+//Every method does nothing by default, so the NONE listener costs nothing once the JIT has inlined it.
+//algorithm is the name of the traversal, "SPT_Dijkstra" in this program
+interface TraversalListener {
+    TraversalListener NONE = new TraversalListener() {};
+
+    default void traversalStarted(String algorithm, int s) {}
+    //v has been reached for the first time from parent (0 for the start vertex)
+    default void vertexDiscovered(int v, int parent) {}
+    //all the edges of v have been explored
+    default void vertexFinished(int v) {}
+    //the edge v--u has given u the better key (edge weight for Prim, distance for Dijkstra)
+    default void edgeRelaxed(int v, int u, int key) {}
+    //v has joined the tree along the edge parent--v with the given key
+    default void treeEdgeAdded(int parent, int v, int key) {}
+    //result is the weight of the tree for MST_Prim and 0 otherwise
+    default void traversalFinished(String algorithm, long result) {}
+}//End of Interface
+
+//PrintingTraversalListener Class - prints the shortest path tree to System.out as it is built
+class PrintingTraversalListener implements TraversalListener {
+
+    public void traversalStarted(String algorithm, int s)
+    {
+        System.out.println("\n-------------------------------------");
+        System.out.print("Dijkstra's Shortest Path Tree Algorithm\n");
+        System.out.println("Starting with Vertex " + (char)(s + 64));
+        System.out.print("\nShortest Path Tree is:\n");
+        System.out.println("Vertex \t Parent    Distance from " + s);
+    }
+
+    public void treeEdgeAdded(int parent, int v, int key)
+    {
+        System.out.println("   " + v + " \t   " + parent + " \t\t " + key);
+    }
+}//End of PrintingTraversalListener Class
+
+class Graph {
     
     // V = number of vertices
     // E = number of edges
-    // adj[] is the adjacency lists array
+    // The adjacency lists are stored in compressed sparse row (CSR) form:
+    // the neighbours of v are targets[offsets[v]] .. targets[offsets[v+1]-1]
+    // and weights[i] is the weight of the edge to targets[i]
     private int V, E;
-    private Node[] adj;
-    private Node z;
+    private int[] offsets, targets, weights;
     private int[] mst;
     
     // used for traversing graph
     //parent = Used to keep track of the parent of each vertex
     private int[] visited,parent,d,f;
     private int id;
+
+    // receives the steps of the traversals, silent unless a listener is set
+    private TraversalListener listener = TraversalListener.NONE;
     
     
     // default constructor
     public Graph(String graphFile)  throws IOException
     {
-        int u, v;
-        int e, wgt;
-        Node t,prev,curr;
-
-        FileReader fr = new FileReader(graphFile);
-		BufferedReader reader = new BufferedReader(fr);
-	           
-        String splits = " +";  // multiple whitespace as delimiter
-		String line = reader.readLine();        
-        String[] parts = line.split(splits);
-        System.out.println("Parts[] = " + parts[0] + " " + parts[1]);
-        
-        V = Integer.parseInt(parts[0]);
-        E = Integer.parseInt(parts[1]);
-        
-        // create sentinel node
-        z = new Node(); 
-        z.next = z;
-        
+        this(graphFile, false);
+    }
+
+    //Reads the graph from a text file, if dropDuplicates is true repeated edges between two vertices are merged
+    public Graph(String graphFile, boolean dropDuplicates)  throws IOException
+    {
+        int e;
+        EdgeList edges;
+
+        try(EdgeFileReader reader = new EdgeFileReader(graphFile))
+        {
+            V = reader.nextInt();
+            E = reader.nextInt();
+            System.out.println("Parts[] = " + V + " " + E);
+
+            edges = new EdgeList(E);
+
+           // read the edges
+            System.out.println("Reading edges from text file");
+            for(e = 1; e <= E; ++e)
+                edges.add(reader.nextInt(), reader.nextInt(), reader.nextInt());
+        }
+
+        build(edges, dropDuplicates);
+    } //End of Constructor
+
+    //Builds the graph on vertices 1..V from a list of edges that has already been read
+    public Graph(int V, EdgeList edges, boolean dropDuplicates)
+    {
+        this.V = V;
+        this.E = edges.size;
+        build(edges, dropDuplicates);
+    }
+
+    //Wraps adjacency arrays that are already laid out in CSR form, used by loaders that build the arrays themselves
+    Graph(int V, int E, int[] offsets, int[] targets, int[] weights)
+    {
+        this.V = V;
+        this.E = E;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+
+        visited = new int[V+1];
+        parent = new int[V+1];
+        d = new int[V+1];
+        f = new int[V+1];
+    }
+
+    //build Method - lays out the adjacency lists of all the edges in one go
+    //Each edge u--v is stored twice, as u->v and v->u. The two copies are counting sorted,
+    //first by the vertex they point to and then by the vertex they come from, which gives
+    //every list sorted by vertex in O(V + E) time. The copies are numbered in the order they
+    //were read and the first sort walks them backwards, so a repeated neighbour ends up in
+    //front of the earlier one just as it did when edges were inserted into the lists one at a time
+    private void build(EdgeList edges, boolean dropDuplicates)
+    {
+        int v, h, e, src, tgt, n, i;
+        int[] count, order;
+
         visited = new int[V+1];
         parent = new int[V+1];
         d = new int[V+1];
         f = new int[V+1];
-        adj = new Node[V+1];
 
-        // create adjacency lists, initialised to sentinel node z       
-        adj = new Node[V+1];        
+        n = 2*edges.size; // number of edge copies, copy 2e is u->v and copy 2e+1 is v->u
+        count = new int[V+2];
+        offsets = new int[V+2];
+
+        //Counts how many copies point to and come from each vertex
+        for(e = 0; e < edges.size; ++e)
+        {
+            ++count[edges.v[e]+1];
+            ++count[edges.u[e]+1];
+            ++offsets[edges.u[e]+1];
+            ++offsets[edges.v[e]+1];
+        }
+        //Prefix sums give the start of each vertex's block in the two sorts
         for(v = 1; v <= V; ++v)
-            adj[v] = z;               
-        
-       // read the edges
-        System.out.println("Reading edges from text file");
-        for(e = 1; e <= E; ++e)
         {
-            line = reader.readLine();
-            parts = line.split(splits);
-            u = Integer.parseInt(parts[0]);
-            v = Integer.parseInt(parts[1]); 
-            wgt = Integer.parseInt(parts[2]);
-            
-            System.out.println("Edge " + u + "--(" + wgt + ")--" + v);   
-
-            // write code to put edge into adjacency matrix    
-            t = new Node();
-            //Sets t to a new node with the first vertex in the edge
-            t.vert = v;
-            t.wgt = wgt;
-            z.vert = v;
-            //Sets curr to the node at position v in the adjacency list
-            curr = adj[u];
-            prev = null;
-
-            //Inserts node into the correct position in the list
-            while(curr.vert < t.vert) //Keeps looping to find the correct position for the node in the list
-            {
-                prev = curr;
-                curr = curr.next;
-            }
-            t.next = curr;
-            if(prev != null) //If not at the start of the list
+            count[v+1] += count[v];
+            offsets[v+1] += offsets[v];
+        }
+
+        //First pass - sorts the copies by the vertex they point to, latest copy first
+        order = new int[n];
+        for(h = n-1; h >= 0; --h)
+        {
+            e = h >> 1;
+            tgt = (h & 1) == 0 ? edges.v[e] : edges.u[e];
+            order[count[tgt]++] = h;
+        }
+
+        //Second pass - stable sort by the vertex they come from, straight into the adjacency arrays
+        targets = new int[n];
+        weights = new int[n];
+        System.arraycopy(offsets, 0, count, 0, V+2); // count[v] is now the next free slot in the list of v
+        for(i = 0; i < n; ++i)
+        {
+            h = order[i];
+            e = h >> 1;
+            if((h & 1) == 0)
             {
-                prev.next = t;
+                src = edges.u[e];
+                tgt = edges.v[e];
             }
             else
             {
-                adj[u] = t;
+                src = edges.v[e];
+                tgt = edges.u[e];
             }
+            targets[count[src]] = tgt;
+            weights[count[src]] = edges.w[e];
+            ++count[src];
+        }
 
-            //Sets t to a new node containing the second vertex in the edge
-            t = new Node();
-            t.vert = u;
-            z.vert = u;
-            t.wgt = wgt;
-            //Sets curr to the node at position v in the adjacency list
-            curr = adj[v];
-            prev = null;
-            //Inserts node into the correct position in the list
-            while(curr.vert < t.vert) //Keeps looping to find the correct position for the node in the list
-            {
-                prev = curr;
-                curr = curr.next;
-            }
-            t.next = curr;
-            if(prev != null) //If not at the start of the list
-            {
-                prev.next = t;
-            }
-            else
+        if(dropDuplicates)
+            dropDuplicateEdges();
+    } //End of build Method
+
+    //dropDuplicateEdges Method - merges repeated neighbours in each sorted list into one edge
+    //The lightest of the repeated edges is kept as it is the only one a shortest path or spanning tree can use
+    private void dropDuplicateEdges()
+    {
+        int v, i, end, next = 0, start = 0;
+
+        for(v = 1; v <= V; ++v)
+        {
+            end = offsets[v+1];
+            offsets[v] = next;
+            for(i = start; i < end; ++i)
             {
-                adj[v] = t;
+                if(next > offsets[v] && targets[next-1] == targets[i]) //Same neighbour as the last edge kept
+                {
+                    if(weights[i] < weights[next-1])
+                        weights[next-1] = weights[i];
+                }
+                else
+                {
+                    targets[next] = targets[i];
+                    weights[next] = weights[i];
+                    ++next;
+                }
             }
-            
-        }	       
-    } //End of Constructor
+            start = end;
+        }
+        offsets[V+1] = next;
+
+        targets = Arrays.copyOf(targets, next);
+        weights = Arrays.copyOf(weights, next);
+    } //End of dropDuplicateEdges Method
 
 
+    //setListener Method - sets the listener that is told about each step of the traversals
+    public void setListener(TraversalListener l)
+    {
+        listener = l == null ? TraversalListener.NONE : l;
+    }
+
     // convert vertex into char for pretty printing
     private char toChar(int u)
     {  
@@ -236,13 +478,12 @@ class Graph {
     
     // method to display the graph representation
     public void display() {
-        int v;
-        Node n;
+        int v, i;
         
         for(v=1; v<=V; ++v){
             System.out.print("\nadj[" + v + "] ->" );
-            for(n = adj[v]; n != z; n = n.next) 
-                System.out.print(" |" + n.vert + " | " + n.wgt + "| ->");    
+            for(i = offsets[v]; i < offsets[v+1]; ++i) 
+                System.out.print(" |" + targets[i] + " | " + weights[i] + "| ->");    
         }
         System.out.println("");
     }
@@ -250,13 +491,11 @@ class Graph {
     //Dijkstra's Shortest Path Tree (SPT) algorithm
     public void SPT_Dijkstra(int s)
     {
-        System.out.println("\n-------------------------------------");
-        System.out.print("Dijkstra's Shortest Path Tree Algorithm\n");
-        System.out.println("Starting with Vertex " + toChar(s));
+        listener.traversalStarted("SPT_Dijkstra", s);
         int v,u;
         int wgt = 0;
         int[] dist,hPos,parent;
-        Node t;
+        int i;
 
         dist = new int[V+1]; //Used to keep track of the distance of each edge 
         hPos = new int[V+1]; //Used to keep track of the position of each vertex in the heap
@@ -274,19 +513,16 @@ class Graph {
         pq.insert(s); //Calls the heap insert method and passes in s
         dist[s] = 0; //sets the distance of the vertex s to 0
 
-        System.out.print("\nShortest Path Tree is:\n");
-        System.out.println("Vertex \t Parent    Distance from " + s);
-
         while(!pq.isEmpty()) //Keeps looping while the heap is not empty
         {
             v = pq.remove(); //Calls the heap remove method sets v to the integer that is removed/returned 
-            System.out.println("   " + v + " \t   " + parent[v] + " \t\t " + dist[v]);
+            listener.treeEdgeAdded(parent[v], v, dist[v]);
 
             //Loops through all the edges from v
-            for(t = adj[v]; t != z; t = t.next)
+            for(i = offsets[v]; i < offsets[v+1]; ++i)
             {
-                u = t.vert;
-                wgt = t.wgt;
+                u = targets[i];
+                wgt = weights[i];
                 if(dist[v] + wgt < dist[u]) //If the weight of the edge plus the distance for vertex v we already have is less then the distance we already have for the vertex u
                 {
                     dist[u] = dist[v] + wgt; //Sets distance of vertex u to the distance of vertex v we already have plus the weight
@@ -299,17 +535,100 @@ class Graph {
                         pq.siftUp(hPos[u]); //Calls the heap siftUp Method and passes in the position of u in the heap
                     }
                     parent[u] = v; //Sets the parent of vertex u to vertex v
+                    listener.edgeRelaxed(v, u, dist[u]);
                 }
 
             }
         }
-
+        listener.traversalFinished("SPT_Dijkstra", 0);
 
     }//End of SPT_Dijkstra method
 
 
 }//End of Graph class
 
+//GraphSnapshot Class - saves a built graph in a binary file that can be loaded again without parsing
+//Layout (big endian):  magic "GSNP", version, V, E, n = number of adjacency entries,
+//                      offsets[0..V+1], targets[0..n-1], weights[0..n-1], CRC32C of all the bytes before it
+class GraphSnapshot
+{
+    public static final int MAGIC = 0x47534E50; // "GSNP"
+    public static final int VERSION = 1;
+    private static final int HEADER = 20;       // bytes in the five header ints
+    private static final int WINDOW = 1 << 28;  // bytes mapped or buffered at a time
+
+    //isSnapshot Method - returns true if the file starts with the snapshot magic number
+    public static boolean isSnapshot(String fileName) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ))
+        {
+            ByteBuffer b = ByteBuffer.allocate(4);
+            return channel.read(b, 0) == 4 && b.getInt(0) == MAGIC;
+        }
+    }
+
+    //load Method - loads a snapshot, or parses the file if it is a text graph
+    public static Graph load(String fileName) throws IOException
+    {
+        return isSnapshot(fileName) ? read(fileName) : new Graph(fileName);
+    }
+
+    //read Method - maps a snapshot back into the adjacency arrays of a graph
+    public static Graph read(String fileName) throws IOException
+    {
+        int V, E, n;
+        int[] offsets, targets, weights;
+        long pos, expected;
+        CRC32C crc = new CRC32C();
+
+        try(FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ))
+        {
+            if(channel.size() < HEADER + 8)
+                throw new IOException(fileName + " is too short to be a graph snapshot");
+            MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+            if(head.getInt(0) != MAGIC)
+                throw new IOException(fileName + " is not a graph snapshot");
+            if(head.getInt(4) != VERSION)
+                throw new IOException(fileName + " is snapshot version " + head.getInt(4) + ", expected " + VERSION);
+            V = head.getInt(8);
+            E = head.getInt(12);
+            n = head.getInt(16);
+            if(V < 0 || n < 0 || channel.size() != HEADER + 4L*(V+2) + 8L*n + 8)
+                throw new IOException(fileName + " has the wrong length for a graph snapshot");
+            crc.update(head);
+
+            offsets = new int[V+2];
+            targets = new int[n];
+            weights = new int[n];
+            pos = readInts(channel, HEADER, offsets, crc);
+            pos = readInts(channel, pos, targets, crc);
+            pos = readInts(channel, pos, weights, crc);
+
+            expected = channel.map(FileChannel.MapMode.READ_ONLY, pos, 8).getLong();
+            if(crc.getValue() != expected)
+                throw new IOException(fileName + " failed its checksum, the snapshot is corrupt");
+        }
+        return new Graph(V, E, offsets, targets, weights);
+    }//End of read Method
+
+    //readInts Method - fills a from the file starting at pos, returns the position after the last int
+    private static long readInts(FileChannel channel, long pos, int[] a, CRC32C crc) throws IOException
+    {
+        int off = 0, len;
+        while(off < a.length)
+        {
+            len = Math.min(a.length - off, WINDOW / 4);
+            MappedByteBuffer b = channel.map(FileChannel.MapMode.READ_ONLY, pos, 4L*len);
+            b.asIntBuffer().get(a, off, len);
+            crc.update(b);
+            off += len;
+            pos += 4L*len;
+        }
+        return pos;
+    }//End of readInts Method
+
+}//End of GraphSnapshot Class
+
 public class Dijkstra {
     public static void main(String[] args) throws IOException
     {
@@ -333,9 +652,10 @@ public class Dijkstra {
         */
            
         
-        Graph g = new Graph(fname);
+        Graph g = GraphSnapshot.load(fname);
        
         //g.display();
+        //g.setListener(new PrintingTraversalListener());
         Runtime runtime = Runtime.getRuntime();
         System.gc();
         long memoryBefore = runtime.totalMemory() - runtime.freeMemory();
@@ -1,78 +1,74 @@
 // Simple weighted graph representation 
-// Uses an Adjacency Linked Lists, suitable for sparse graphs
+// Uses Adjacency Lists stored as compressed sparse row (CSR) arrays, suitable for sparse graphs
 
 import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
 
-//Exception for queue
-class QueueException extends Exception {
-    public QueueException(String m)
-    {
-        super(m);
-    }
-}//End of Exception  
-
-//Interface for Queue
-interface Queue {
-    public void enQueue(int x) throws QueueException;
-    public int deQueue() throws QueueException;
-    public boolean isEmpty();   
+//IndexedPriorityQueue Interface - a priority queue of the vertices 1..V
+//The key of a vertex is read from the dist[] array the queue was made with. To lower the key of a
+//vertex in the queue the caller changes dist[v] and then calls decreaseKey(v)
+interface IndexedPriorityQueue {
+    public boolean isEmpty();
+    public void insert(int v);
+    public void decreaseKey(int v);
+    public int removeMin();
+    public boolean contains(int v);
 }//End of Interface
 
-//QueueCb Class - Circular Queue used in breadth first search
-class QueueCB implements Queue {
-    private int q[], back, front;
-    private int qmax, size;
-
-    //Constructor
-    public QueueCB() {
-        qmax = 10;
-        size = front = back = 0;
-        q = new int[qmax];
-    }//End of Constructor
+//HeapType Enum - the priority queues MST_Prim and SPT_Dijkstra can be run with
+enum HeapType {
+    BINARY,     // the Heap class
+    FOUR_ARY,   // DaryHeap with 4 children per node
+    EIGHT_ARY,  // DaryHeap with 8 children per node
+    PAIRING,    // PairingHeap
+    LAZY,       // LazyHeap, no decrease key
+    BUCKET,     // BucketQueue, monotone integer keys only
+    RADIX;      // RadixHeap, monotone integer keys only
 
-    //enQueue Method - inserts the integer at the back of the queue
-    public void enQueue( int x) throws QueueException  {
-        
-        if(size != qmax) //Checks if the queue is full
-        {
-            q[back] = x; //Inserts integer at the back of the queue
-            back = (back+1) % qmax; //Divide by the maximum amount of space in the queue so that it goes back to  the start of the queue (0) when it is at the end
-            ++size;
-        }
-        else //Throws an exception if the queue is full
-        {
-            throw new QueueException("The queue is full");
-        }
-    }//End of Enqueue Method
-    
-    //deQueue Method - removes the integer that is at the front of the queue
-    public int deQueue()  throws QueueException 
+    //monotone Method - true if the queue needs every key inserted to be at least the last key removed,
+    //which holds for Dijkstra's algorithm with non negative weights but not for Prim's
+    public boolean monotone()
     {
-        int deleteValue = 0;
-        if(size != 0) //Checks that the queue is not empty
-        {
-            deleteValue = q[front]; 
-            front = (front+1) % qmax; //Divide by the maximum amount of space in the queue so that it goes back to  the start of the queue (0) when it is at the end
-            --size;
-            return deleteValue; 
+        return this == BUCKET || this == RADIX;
+    }
 
-        }
-        else //If the queue is empty it throws an exception
+    //create Method - makes an empty queue of this type for the vertices 1..maxSize keyed by dist[]
+    //maxWeight is the largest edge weight in the graph, only the bucket queue uses it
+    public IndexedPriorityQueue create(int maxSize, int[] dist, int maxWeight)
+    {
+        switch(this)
         {
-            throw new QueueException("The queue is empty");
+            case FOUR_ARY:  return new DaryHeap(4, maxSize, dist);
+            case EIGHT_ARY: return new DaryHeap(8, maxSize, dist);
+            case PAIRING:   return new PairingHeap(maxSize, dist);
+            case LAZY:      return new LazyHeap(maxSize, dist);
+            case BUCKET:    return new BucketQueue(maxSize, dist, maxWeight);
+            case RADIX:     return new RadixHeap(maxSize, dist);
+            default:        return new Heap(maxSize, dist, new int[maxSize + 1]);
         }
-    }//End of deQueue Method
-
-    //isEmpty Method - checks if the queue is empty and if so returns true
-    public boolean isEmpty() {
-        return size == 0;
-    }//End of isEmpty Method
-
-        
-}
+    }
+}//End of HeapType Enum
 
-class Heap
+class Heap implements IndexedPriorityQueue
 {
     private int[] a;	   // heap array
     private int[] hPos;	   // hPos[h[k]] == k
@@ -177,405 +173,4691 @@ class Heap
 
     } //End of remove method
 
+    public int removeMin()
+    {
+        return remove();
+    }
+
+    //decreaseKey Method - moves v up the heap after its key has been lowered
+    public void decreaseKey(int v)
+    {
+        siftUp(hPos[v]);
+    }
+
+    public boolean contains(int v)
+    {
+        return hPos[v] != 0;
+    }
      
 }//End of Heap Class
 
-class Graph {
-    class Node {
-        public int vert;
-        public int wgt;
-        public Node next;
+//DaryHeap Class - an indexed heap where every node has d children instead of 2
+//A wider heap is shallower, so siftUp walks fewer levels, and the d children of a node sit next to
+//each other in the array, so siftDown reads them from one or two cache lines
+class DaryHeap implements IndexedPriorityQueue
+{
+    private int[] a;       // heap array, the root is a[0] and the children of a[k] are a[d*k+1] .. a[d*k+d]
+    private int[] hPos;    // hPos[a[k]] == k+1, 0 if the vertex is not in the heap
+    private int[] dist;    // dist[v] = priority of v
+    private int d;         // children per node
+    private int N;         // heap size
+
+    public DaryHeap(int d, int maxSize, int[] dist)
+    {
+        this.d = d;
+        this.dist = dist;
+        a = new int[maxSize];
+        hPos = new int[maxSize + 1];
+        N = 0;
     }
-    
-    // V = number of vertices
-    // E = number of edges
-    // adj[] is the adjacency lists array
-    private int V, E;
-    private Node[] adj;
-    private Node z;
-    private int[] mst;
-    
-    // used for traversing graph
-    //parent = Used to keep track of the parent of each vertex
-    private int[] visited,parent,d,f;
-    private int id;
-    
-    
-    // default constructor
-    public Graph(String graphFile)  throws IOException
+
+    public boolean isEmpty()
     {
-        int u, v;
-        int e, wgt;
-        Node t,prev,curr;
-
-        FileReader fr = new FileReader(graphFile);
-		BufferedReader reader = new BufferedReader(fr);
-	           
-        String splits = " +";  // multiple whitespace as delimiter
-		String line = reader.readLine();        
-        String[] parts = line.split(splits);
-        System.out.println("Parts[] = " + parts[0] + " " + parts[1]);
-        
-        V = Integer.parseInt(parts[0]);
-        E = Integer.parseInt(parts[1]);
-        
-        // create sentinel node
-        z = new Node(); 
-        z.next = z;
-        
-        visited = new int[V+1];
-        parent = new int[V+1];
-        d = new int[V+1];
-        f = new int[V+1];
-        adj = new Node[V+1];
+        return N == 0;
+    }
 
-        // create adjacency lists, initialised to sentinel node z       
-        adj = new Node[V+1];        
-        for(v = 1; v <= V; ++v)
-            adj[v] = z;               
-        
-       // read the edges
-        System.out.println("Reading edges from text file");
-        for(e = 1; e <= E; ++e)
-        {
-            line = reader.readLine();
-            parts = line.split(splits);
-            u = Integer.parseInt(parts[0]);
-            v = Integer.parseInt(parts[1]); 
-            wgt = Integer.parseInt(parts[2]);
-            
-            System.out.println("Edge " + toChar(u) + "--(" + wgt + ")--" + toChar(v));   
-
-            // write code to put edge into adjacency matrix    
-            t = new Node();
-            //Sets t to a new node with the first vertex in the edge
-            t.vert = v;
-            t.wgt = wgt;
-            z.vert = v;
-            //Sets curr to the node at position v in the adjacency list
-            curr = adj[u];
-            prev = null;
-
-            //Inserts node into the correct position in the list
-            while(curr.vert < t.vert) //Keeps looping to find the correct position for the node in the list
-            {
-                prev = curr;
-                curr = curr.next;
-            }
-            t.next = curr;
-            if(prev != null) //If not at the start of the list
-            {
-                prev.next = t;
-            }
-            else
-            {
-                adj[u] = t;
-            }
+    public boolean contains(int v)
+    {
+        return hPos[v] != 0;
+    }
 
-            //Sets t to a new node containing the second vertex in the edge
-            t = new Node();
-            t.vert = u;
-            z.vert = u;
-            t.wgt = wgt;
-            //Sets curr to the node at position v in the adjacency list
-            curr = adj[v];
-            prev = null;
-            //Inserts node into the correct position in the list
-            while(curr.vert < t.vert) //Keeps looping to find the correct position for the node in the list
-            {
-                prev = curr;
-                curr = curr.next;
-            }
-            t.next = curr;
-            if(prev != null) //If not at the start of the list
-            {
-                prev.next = t;
-            }
-            else
-            {
-                adj[v] = t;
-            }
-            
-        }	       
-    } //End of Constructor
-   
-    // convert vertex into char for pretty printing
-    private char toChar(int u)
-    {  
-        return (char)(u + 64);
+    public void insert(int v)
+    {
+        a[N] = v;
+        siftUp(N++);
     }
-    
-    // method to display the graph representation
-    public void display() {
-        int v;
-        Node n;
-        
-        for(v=1; v<=V; ++v){
-            System.out.print("\nadj[" + toChar(v) + "] ->" );
-            for(n = adj[v]; n != z; n = n.next) 
-                System.out.print(" |" + toChar(n.vert) + " | " + n.wgt + "| ->");    
-        }
-        System.out.println("");
+
+    public void decreaseKey(int v)
+    {
+        siftUp(hPos[v] - 1);
     }
 
-    //Depth first search Method using recursion - takes in an integer s which specifies which vertex to start at
-    //Called by the main method
-    //0 = white
-    //1= black
-    //2 = grey
-    public void DF( int s) 
+    public int removeMin()
     {
-        int v;
-        //Loops through the visited and parent array and sets them all to 0
-        for(v=1; v<=V; ++v) {
-            visited[v] = 0;   
-            parent[v] = 0; 
+        int v = a[0];
+        hPos[v] = 0;
+        if(--N > 0)
+        {
+            a[0] = a[N];
+            siftDown(0);
         }
-        
-        System.out.println("-------------------------------------");
-        System.out.print("Depth First Graph Traversal\n");
-        System.out.println("Starting with Vertex " + toChar(s));
-        
-        id = 0;
-        //Calls dfVisit method and passes in s  
-        dfVisit(s);         
-        
-        System.out.print("\n\n");
-    
-    } //End of DF Method
+        return v;
+    }
 
-    //Depth first search Method using recursion - takes in an integer v which specifies which vertex to start at
-    //Called by the DF Method
-    private void dfVisit(int v)
+    //siftUp Method - moves the vertex at position k up past any parents with a larger key
+    private void siftUp(int k)
     {
-        Node t;
-        int u;
-        ++id;
-        d[v] = id;
-        visited[v] = 2; //Sets vertex v to 2 to signify it has been discovered
-        System.out.println("\nv = " + v);
-        System.out.println("DF just visited vertex " + toChar(v) + " along edge " + toChar(parent[v]) + "--" + toChar(v));
+        int v = a[k], p;
+        while(k > 0 && dist[v] < dist[a[p = (k - 1) / d]])
+        {
+            a[k] = a[p];
+            hPos[a[k]] = k + 1;
+            k = p;
+        }
+        a[k] = v;
+        hPos[v] = k + 1;
+    }
 
-        //Loops through all edges from vertex v
-        for(t=adj[v]; t!=z; t=t.next)
+    //siftDown Method - moves the vertex at position k down past any children with a smaller key
+    private void siftDown(int k)
+    {
+        int v = a[k], c, j, last, min;
+        while((c = d * k + 1) < N)
         {
-            u = t.vert; //Sets u to the connected vertex
-            if(visited[u] == 0) //If vertex u has not been visited
-            {
-                parent[u] = v; //Sets the parent of vertex u
-                dfVisit(u); //Calls itself and passes in u
-            }
+            //Finds the child with the smallest key
+            min = c;
+            last = Math.min(c + d, N);
+            for(j = c + 1; j < last; ++j)
+                if(dist[a[j]] < dist[a[min]])
+                    min = j;
+            if(dist[v] <= dist[a[min]])
+                break;
+            a[k] = a[min];
+            hPos[a[k]] = k + 1;
+            k = min;
         }
-        visited[v] = 1; //Sets vertex v to 1 to signify it has been visited/finished
-        ++id;
-        f[v] = id;
+        a[k] = v;
+        hPos[v] = k + 1;
+    }
 
-    } //End of dfVisit method
+}//End of DaryHeap Class
 
-    //Breadth first search method - takes in an integer s which signifies the vertex to start at 
-    //Called in main method
-    // 0 - white
-    // 1 - black
-    // 2 - grey
-    public void breadthFirst(int s) {
+//PairingHeap Class - a pairing heap of vertices, each vertex is its own node
+//The tree is kept in arrays: child[v] is the leftmost child of v, sibling[v] the next child of the same
+//parent, and prev[v] the node to the left of v (the parent if v is the leftmost child). Inserting and
+//lowering a key are constant time, the work is done by removeMin pairing up the children of the root
+class PairingHeap implements IndexedPriorityQueue
+{
+    private int[] child, sibling, prev;
+    private boolean[] inHeap;
+    private int[] pairs;   // scratch space for removeMin
+    private int[] dist;    // dist[v] = priority of v
+    private int root;      // 0 when the heap is empty
 
-        System.out.println("-------------------------------------");
-        System.out.print("Breadth First Graph Traversal\n");
-        System.out.println("Starting with Vertex " + toChar(s));
-        int v,u;
-        //Loops through each vertex
-        for(v=1; v<=V; ++v) {
-            if(v == s) continue;
-            visited[v] = 0;  
-            d[v] = Integer.MAX_VALUE;
-            parent[v] = 0;
-        }
-        visited[s] = 2; //Sets vertex s to 2 to signify it has been discovered
-        d[s] = 0;
-        parent[s] = 0;
-        QueueCB Q = new QueueCB(); //Creates a new QueueCB Object
-        try {
-            Q.enQueue(s); //Calls the enQueue Method and passes in s 
-        } catch (QueueException e) {
-            System.out.println("Exception thrown:  " + e.getMessage()); 
-        }
-        while(!Q.isEmpty()) //Keeps looping until the queue is empty
-        {
-            try { 
-                v = Q.deQueue(); //Calls the deQueue Method and sets v to the integer that gets returned 
-            } catch (QueueException e) {
-                System.out.println("Exception thrown: " + e.getMessage()); 
-            }
-            System.out.println("\nv = " + v);
-            System.out.println("BF just visited vertex " + toChar(v) + " along edge " + toChar(parent[v])  + "--" + toChar(v) );
-            //Loops through all edges from vertex v
-            for(Node n = adj[v]; n != z; n = n.next) 
-            {
-                u = n.vert; //Sets u to the connected vertex
-                if(visited[u] == 0) //If the vertex u has not been visited
-                {
-                    visited[u] = 2; //Sets vertex u to 2 to signify it has been discovered
-                    d[u] = d[v] + 1;
-                    parent[u] = v; //Sets the parent of vertex u
-                    try {
-                        Q.enQueue(u); //Calls the enQueue Method and passes in u 
-                    } catch (QueueException e) {
-                        System.out.println("Exception thrown:  " + e.getMessage()); 
-                    }
-                }
-            }
-                
-        }
-        visited[v] = 1; //Sets vertex v to 1 to signify it has been visited/finished
+    public PairingHeap(int maxSize, int[] dist)
+    {
+        this.dist = dist;
+        child = new int[maxSize + 1];
+        sibling = new int[maxSize + 1];
+        prev = new int[maxSize + 1];
+        inHeap = new boolean[maxSize + 1];
+        pairs = new int[maxSize + 1];
+        root = 0;
+    }
 
+    public boolean isEmpty()
+    {
+        return root == 0;
+    }
 
-    } //End of breadthFirst method
+    public boolean contains(int v)
+    {
+        return inHeap[v];
+    }
 
-    //Prim's Minimum Spanning Tree (MST) Algorithm - takes in an integer s which specifies the vertex to start at
-	public void MST_Prim(int s)
-	{
-        
-        System.out.println("\n-------------------------------------");
-        System.out.print("Prim's Minimum Spanning Tree Algorithm\n");
-        System.out.println("Starting with Vertex " + toChar(s));
-        int v, u;
-        int wgt =0 ,wgt_sum = 0;
-        int[]  dist, parent, hPos;
-        Node t;
-        
+    public void insert(int v)
+    {
+        child[v] = sibling[v] = prev[v] = 0;
+        inHeap[v] = true;
+        root = meld(root, v);
+    }
 
-        //code here
-        dist = new int[V+1]; //Used to keep track of the distance of each edge 
-        parent = new int[V+1]; //Used to keep track of the parent of each vertex
-        hPos = new int[V+1]; //Used to keep track of the position of each vertex in the heap
-        
-        //Loops through all the vertices and resets the arrays
-        for(v = 1; v <= V; ++v)
-        {
-            dist[v] = Integer.MAX_VALUE;
-            parent[v] = 0;
-            hPos[v] = 0;
-        }
+    //decreaseKey Method - cuts v and its subtree out of the tree and melds it with the root
+    public void decreaseKey(int v)
+    {
+        if(v == root)
+            return;
+        if(child[prev[v]] == v) //v is the leftmost child
+            child[prev[v]] = sibling[v];
+        else
+            sibling[prev[v]] = sibling[v];
+        if(sibling[v] != 0)
+            prev[sibling[v]] = prev[v];
+        sibling[v] = prev[v] = 0;
+        root = meld(root, v);
+    }
 
-        dist[s] = 0; //sets the distance of the vertex s to 0
+    //removeMin Method - removes the root and melds its children in two passes
+    public int removeMin()
+    {
+        int v = root, c, n = 0, i, t;
+        inHeap[v] = false;
 
-        Heap h =  new Heap(V, dist, hPos); //Creates a new heap object and passes in the amount fo vertices V and the arrays dist and hPos
-        h.insert(s); //Calls the heap insert method and passes in s 
-        
-        while (!h.isEmpty())  //Keeps looping while the heap is not empty
+        //First pass - melds the children in pairs from left to right
+        for(c = child[v]; c != 0; c = t)
         {
-            v = h.remove(); //Calls the heap remove method sets v to the integer that is removed/returned 
-            dist[v] = -dist[v]; //sets the distance of the vertex v to negative to signify it is now in the MST
-            System.out.println("\nv = " + v);
-            System.out.println("MST_Prim just inserted " + toChar(v) + " into MST along edge " + toChar(parent[v])  + "--" + toChar(v));
-            //Loops through all the edges from v
-            for(t = adj[v]; t != z; t = t.next)
-            {
-                u = t.vert;
-                wgt = t.wgt;
-                if(wgt < dist[u]) //If the weight of the edge is less then the distance already saved for the vertex u
-                {
-                    dist[u] = wgt;
-                    parent[u] = v;
-                    if(hPos[u] == 0) //If the vertex u is not in the heap
-                    {
-                        h.insert(u); //Calls the heap insert method and passes in u
-                    }
-                    else
-                    {
-                        h.siftUp(hPos[u]); //Calls the heap siftUp Method and passes in the position of u in the heap
-                    }
-                }
-
-            }
+            int a = c, b = sibling[c];
+            t = b != 0 ? sibling[b] : 0;
+            sibling[a] = prev[a] = 0;
+            if(b != 0)
+                sibling[b] = prev[b] = 0;
+            pairs[n++] = meld(a, b);
         }
+        //Second pass - melds the pairs from right to left
+        root = 0;
+        for(i = n - 1; i >= 0; --i)
+            root = meld(root, pairs[i]);
+        child[v] = 0;
+        return v;
+    }
 
-        //Loops through the distance array and multiplies it by -1 and adds it to the total weight sum
-        for(int x = 1; x < V+1; ++x)
+    //meld Method - joins two trees by making the one with the larger root the leftmost child of the other
+    private int meld(int a, int b)
+    {
+        int t;
+        if(a == 0)
+            return b;
+        if(b == 0)
+            return a;
+        if(dist[b] < dist[a])
         {
-            wgt_sum += dist[x] * -1;
+            t = a;
+            a = b;
+            b = t;
         }
+        sibling[b] = child[a];
+        if(child[a] != 0)
+            prev[child[a]] = b;
+        prev[b] = a;
+        child[a] = b;
+        return a;
+    }
 
-        mst = parent; //Sets the mst array to the parent array
-        
+}//End of PairingHeap Class
 
-        System.out.print("\n\nWeight of MST = " + wgt_sum + "\n");
+//LazyHeap Class - a binary heap with no decrease key
+//Lowering a key pushes another entry for the vertex instead of moving the old one, and removeMin throws
+//away entries whose key no longer matches dist[]. Each entry is one long, (key << 32 | vertex), so the
+//heap is a single primitive array and comparing two entries is one comparison
+class LazyHeap implements IndexedPriorityQueue
+{
+    private long[] a;          // heap array of entries, the root is a[1]
+    private boolean[] inHeap;  // true while v has a live entry
+    private int[] dist;        // dist[v] = priority of v
+    private int N;             // number of entries, live or not
 
-        
-                  		
-	}//End of MST_Prim method
-    
-    public void showMST()
+    public LazyHeap(int maxSize, int[] dist)
     {
-            System.out.print("\n\nMinimum Spanning tree parent array is:\n");
-            for(int v = 1; v <= V; ++v)
-                System.out.println(toChar(v) + " -> " + toChar(mst[v]));
-            System.out.println("");
+        this.dist = dist;
+        a = new long[maxSize + 1];
+        inHeap = new boolean[maxSize + 1];
+        N = 0;
     }
 
-    //Dijkstra's Shortest Path Tree (SPT) algorithm
-    public void SPT_Dijkstra(int s)
+    public boolean isEmpty()
     {
-        System.out.println("\n-------------------------------------");
-        System.out.print("Dijkstra's Shortest Path Tree Algorithm\n");
-        System.out.println("Starting with Vertex " + toChar(s));
-        int v,u;
-        int wgt = 0;
-        int[] dist,hPos,parent;
-        Node t;
-
-        dist = new int[V+1]; //Used to keep track of the distance of each edge 
-        hPos = new int[V+1]; //Used to keep track of the position of each vertex in the heap
-        parent = new int[V+1]; //Used to keep track of the parent of each vertex
+        //Throws away dead entries at the top so that an empty heap of dead entries reports empty
+        while(N > 0 && !live(a[1]))
+            pop();
+        return N == 0;
+    }
 
-        //Loops through all the vertices and resets the arrays
-        for(v=1;v <= V; ++v)
-        {
-            dist[v] = Integer.MAX_VALUE;
-            parent[v] = 0;
-            hPos[v] = 0;
-        }
+    public boolean contains(int v)
+    {
+        return inHeap[v];
+    }
 
-        Heap pq = new Heap(V,dist,hPos); //Creates a new Heap object
-        pq.insert(s); //Calls the heap insert method and passes in s
-        dist[s] = 0; //sets the distance of the vertex s to 0
+    public void insert(int v)
+    {
+        inHeap[v] = true;
+        push(((long)dist[v] << 32) | v);
+    }
 
-        System.out.print("\nShortest Path Tree is:\n");
-        System.out.println("Vertex \t Parent    Distance from " + s);
+    public void decreaseKey(int v)
+    {
+        push(((long)dist[v] << 32) | v);
+    }
 
-        while(!pq.isEmpty()) //Keeps looping while the heap is not empty
+    public int removeMin()
+    {
+        long e;
+        do
         {
-            v = pq.remove(); //Calls the heap remove method sets v to the integer that is removed/returned 
-            System.out.println("   " + toChar(v) + " \t   " + toChar(parent[v]) + " \t\t " + dist[v]);
+            e = pop();
+        } while(!live(e));
+        inHeap[(int)e] = false;
+        return (int)e;
+    }
 
-            //Loops through all the edges from v
-            for(t = adj[v]; t != z; t = t.next)
-            {
-                u = t.vert;
-                wgt = t.wgt;
-                if(dist[v] + wgt < dist[u]) //If the weight of the edge plus the distance for vertex v we already have is less then the distance we already have for the vertex u
-                {
-                    dist[u] = dist[v] + wgt; //Sets distance of vertex u to the distance of vertex v we already have plus the weight
-                    if(hPos[u] == 0) //If the vertex u is not in the heap
-                    {
-                        pq.insert(u);//Calls the heap insert method and passes in u
-                    }
-                    else
-                    {
-                        pq.siftUp(hPos[u]); //Calls the heap siftUp Method and passes in the position of u in the heap
-                    }
-                    parent[u] = v; //Sets the parent of vertex u to vertex v
-                }
+    //live Method - an entry is live if its vertex is still in the heap and its key is still the vertex's key
+    private boolean live(long e)
+    {
+        int v = (int)e;
+        return inHeap[v] && (int)(e >> 32) == dist[v];
+    }
 
-            }
+    private void push(long e)
+    {
+        int k = ++N;
+        if(k == a.length)
+            a = Arrays.copyOf(a, 2 * k);
+        while(k > 1 && e < a[k/2])
+        {
+            a[k] = a[k/2];
+            k = k/2;
         }
+        a[k] = e;
+    }
 
+    private long pop()
+    {
+        long top = a[1], e = a[N--];
+        int k = 1, j;
+        while((j = 2*k) <= N)
+        {
+            if(j < N && a[j+1] < a[j])
+                ++j;
+            if(e <= a[j])
+                break;
+            a[k] = a[j];
+            k = j;
+        }
+        a[k] = e;
+        return top;
+    }
+
+}//End of LazyHeap Class
+
+//BucketQueue Class - Dial's bucket queue for keys that never go below the last key removed
+//With edge weights of at most C, every key in the queue during Dijkstra's algorithm lies between the
+//smallest key and the smallest key + C, so C+1 buckets used round robin hold them all without clashing.
+//Each bucket is a doubly linked list of vertices, so insert and decreaseKey are constant time and
+//removeMin only has to step past empty buckets
+class BucketQueue implements IndexedPriorityQueue
+{
+    private int[] head;    // head[b] = first vertex in bucket b, 0 if the bucket is empty
+    private int[] next, prev;
+    private int[] bucket;  // bucket[v] = bucket holding v, -1 if v is not in the queue
+    private int[] dist;    // dist[v] = priority of v
+    private int cur;       // smallest key that can still be in the queue, the last key removed (-1 before the first insert)
+    private int N;         // number of vertices in the queue
+
+    //maxStep is the largest amount a key can be above the smallest key in the queue, the largest edge weight
+    public BucketQueue(int maxSize, int[] dist, int maxStep)
+    {
+        this.dist = dist;
+        head = new int[maxStep + 1];
+        next = new int[maxSize + 1];
+        prev = new int[maxSize + 1];
+        bucket = new int[maxSize + 1];
+        Arrays.fill(bucket, -1);
+        cur = -1;
+        N = 0;
+    }
+
+    public boolean isEmpty()
+    {
+        return N == 0;
+    }
+
+    public boolean contains(int v)
+    {
+        return bucket[v] >= 0;
+    }
+
+    public void insert(int v)
+    {
+        if(cur < 0)
+            cur = dist[v];
+        ++N;
+        link(v);
+    }
+
+    public void decreaseKey(int v)
+    {
+        unlink(v);
+        link(v);
+    }
+
+    public int removeMin()
+    {
+        int b = cur % head.length;
+        while(head[b] == 0)
+        {
+            ++cur;
+            if(++b == head.length)
+                b = 0;
+        }
+        int v = head[b];
+        unlink(v);
+        --N;
+        return v;
+    }
+
+    private void link(int v)
+    {
+        int b = dist[v] % head.length;
+        bucket[v] = b;
+        prev[v] = 0;
+        next[v] = head[b];
+        if(head[b] != 0)
+            prev[head[b]] = v;
+        head[b] = v;
+    }
+
+    private void unlink(int v)
+    {
+        if(prev[v] != 0)
+            next[prev[v]] = next[v];
+        else
+            head[bucket[v]] = next[v];
+        if(next[v] != 0)
+            prev[next[v]] = prev[v];
+        bucket[v] = -1;
+    }
+
+}//End of BucketQueue Class
+
+//RadixHeap Class - a radix heap for keys that never go below the last key removed
+//Bucket 0 holds the keys equal to the last key removed and bucket i holds the keys whose highest bit
+//that differs from it is bit i-1. When bucket 0 runs out, the first non empty bucket is emptied into the
+//lower buckets relative to its smallest key, so each entry moves down at most 32 times in all. As in
+//LazyHeap a lowered key adds another (key << 32 | vertex) entry and dead entries are skipped
+class RadixHeap implements IndexedPriorityQueue
+{
+    private long[][] b = new long[33][];
+    private int[] count = new int[33];  // entries in each bucket, live or not
+    private boolean[] inHeap;           // true while v has a live entry
+    private int[] dist;                 // dist[v] = priority of v
+    private int last;                   // the last key removed
+    private int N;                      // number of vertices in the heap
+
+    public RadixHeap(int maxSize, int[] dist)
+    {
+        this.dist = dist;
+        inHeap = new boolean[maxSize + 1];
+        for(int i = 0; i < b.length; ++i)
+            b[i] = new long[16];
+        last = 0;
+        N = 0;
+    }
+
+    public boolean isEmpty()
+    {
+        return N == 0;
+    }
+
+    public boolean contains(int v)
+    {
+        return inHeap[v];
+    }
+
+    public void insert(int v)
+    {
+        inHeap[v] = true;
+        ++N;
+        push(((long)dist[v] << 32) | v);
+    }
+
+    public void decreaseKey(int v)
+    {
+        push(((long)dist[v] << 32) | v);
+    }
+
+    public int removeMin()
+    {
+        int i, j, n, min, v;
+        long e;
+        while(true)
+        {
+            //Takes a live entry from bucket 0 if there is one
+            while(count[0] > 0)
+            {
+                e = b[0][--count[0]];
+                v = (int)e;
+                if(live(e))
+                {
+                    inHeap[v] = false;
+                    --N;
+                    return v;
+                }
+            }
+
+            //Refills bucket 0 from the first bucket that is not empty
+            for(i = 1; count[i] == 0; ++i)
+                ;
+            n = count[i];
+            count[i] = 0;
+            min = Integer.MAX_VALUE;
+            for(j = 0; j < n; ++j)
+                if(live(b[i][j]))
+                    min = Math.min(min, (int)(b[i][j] >> 32));
+            if(min == Integer.MAX_VALUE) //Only dead entries, they are dropped
+                continue;
+            last = min;
+            for(j = 0; j < n; ++j)
+                if(live(b[i][j]))
+                    push(b[i][j]);
+        }
+    }//End of removeMin Method
+
+    //live Method - an entry is live if its vertex is still in the heap and its key is still the vertex's key
+    private boolean live(long e)
+    {
+        int v = (int)e;
+        return inHeap[v] && (int)(e >> 32) == dist[v];
+    }
+
+    private void push(long e)
+    {
+        int key = (int)(e >> 32);
+        int i = key == last ? 0 : 32 - Integer.numberOfLeadingZeros(key ^ last);
+        if(count[i] == b[i].length)
+            b[i] = Arrays.copyOf(b[i], 2 * count[i]);
+        b[i][count[i]++] = e;
+    }
+
+}//End of RadixHeap Class
+
+//LongHeap Class - a growable binary min heap of longs
+//Searches that only touch a small part of the graph push (key << 32 | vertex) entries here and skip stale
+//ones when they come out, so nothing the size of the graph has to be set up for each search
+class LongHeap
+{
+    private long[] a = new long[16];  // heap array, the root is a[1]
+    private int N;                    // number of entries
+
+    public boolean isEmpty()
+    {
+        return N == 0;
+    }
+
+    public void clear()
+    {
+        N = 0;
+    }
+
+    public long peek()
+    {
+        return a[1];
+    }
+
+    public void push(long e)
+    {
+        int k = ++N;
+        if(k == a.length)
+            a = Arrays.copyOf(a, 2 * k);
+        while(k > 1 && e < a[k/2])
+        {
+            a[k] = a[k/2];
+            k = k/2;
+        }
+        a[k] = e;
+    }
+
+    public long pop()
+    {
+        long top = a[1], e = a[N--];
+        int k = 1, j;
+        while((j = 2*k) <= N)
+        {
+            if(j < N && a[j+1] < a[j])
+                ++j;
+            if(e <= a[j])
+                break;
+            a[k] = a[j];
+            k = j;
+        }
+        a[k] = e;
+        return top;
+    }
+
+}//End of LongHeap Class
+
+//SearchScratch Class - distance, parent and edge arrays for Dijkstra searches that touch few vertices
+//Each entry carries the number of the search that last wrote it, so starting a new search is one
+//increment instead of clearing arrays the size of the graph, and a search that stops early or only
+//looks near its start costs time for the vertices it reaches and not for the whole graph
+class SearchScratch
+{
+    private final int[] dist, parent, edge, stamp;
+    private final int[] done;   // done[v] == search once v is settled
+    private int search;
+    final LongHeap heap = new LongHeap();
+
+    public SearchScratch(int V)
+    {
+        dist = new int[V+1];
+        parent = new int[V+1];
+        edge = new int[V+1];
+        stamp = new int[V+1];
+        done = new int[V+1];
+    }
+
+    //reset Method - forgets every vertex reached by the last search
+    public void reset()
+    {
+        if(++search == 0) //Stamps have wrapped round, clear them once
+        {
+            Arrays.fill(stamp, 0);
+            Arrays.fill(done, 0);
+            search = 1;
+        }
+        heap.clear();
+    }
+
+    public boolean reached(int v)
+    {
+        return stamp[v] == search;
+    }
+
+    //dist Method - distance found to v in this search, Integer.MAX_VALUE if v has not been reached
+    public int dist(int v)
+    {
+        return stamp[v] == search ? dist[v] : Integer.MAX_VALUE;
+    }
+
+    public int parent(int v)
+    {
+        return parent[v];
+    }
+
+    public int edge(int v)
+    {
+        return edge[v];
+    }
+
+    //reach Method - records v at distance d through edge e from p and queues it by its distance
+    public void reach(int v, int d, int p, int e)
+    {
+        reach(v, d, p, e, d);
+    }
+
+    //reach Method - records v at distance d through edge e from p and queues it with the given key,
+    //for searches such as A* that order vertices by more than their distance
+    public void reach(int v, int d, int p, int e, int key)
+    {
+        stamp[v] = search;
+        dist[v] = d;
+        parent[v] = p;
+        edge[v] = e;
+        heap.push(((long)key << 32) | v);
+    }
+
+    public boolean settled(int v)
+    {
+        return done[v] == search;
+    }
+
+    //next Method - takes the vertex with the smallest key that is not settled yet off the heap and settles it,
+    //-1 once there are none left. A vertex reached again by a shorter path leaves its old entry behind, which
+    //comes off after the vertex is settled and is skipped
+    public int next()
+    {
+        int v;
+        while(!heap.isEmpty())
+        {
+            v = (int)heap.pop();
+            if(done[v] != search)
+            {
+                done[v] = search;
+                return v;
+            }
+        }
+        return -1;
+    }
+
+}//End of SearchScratch Class
+
+//EdgeList Class - a growable list of weighted edges kept in primitive arrays
+//Used to collect the edges of a graph before the adjacency lists are built
+class EdgeList
+{
+    public int[] u, v, w;  // edge k is u[k]--(w[k])--v[k]
+    public int size;       // number of edges in the list
+
+    public EdgeList(int capacity)
+    {
+        if(capacity < 1)
+            capacity = 1;
+        u = new int[capacity];
+        v = new int[capacity];
+        w = new int[capacity];
+        size = 0;
+    }
+
+    //add Method - appends the edge x--(wgt)--y, doubling the arrays when they are full
+    public void add(int x, int y, int wgt)
+    {
+        if(size == u.length)
+        {
+            u = Arrays.copyOf(u, 2*size);
+            v = Arrays.copyOf(v, 2*size);
+            w = Arrays.copyOf(w, 2*size);
+        }
+        u[size] = x;
+        v[size] = y;
+        w[size] = wgt;
+        ++size;
+    }//End of add Method
+
+}//End of EdgeList Class
+
+//EdgeFileReader Class - reads the integers of a graph text file straight from a memory mapped copy of the file
+//The bytes are scanned in place so no Strings are created while the edges are read.
+//Files bigger than one mapping are read through a window that is moved along the file as it is used up
+class EdgeFileReader implements Closeable
+{
+    private static final long WINDOW = 1L << 28; // bytes mapped at a time
+
+    private FileChannel channel;
+    private boolean ownsChannel;   // true if close() should close the channel
+    private ByteBuffer buf = ByteBuffer.allocate(0); // empty until the first window is mapped, so an empty file reads as its end
+    private long next;             // file position of the first byte after the current window
+    private long end;              // reading stops at this file position
+
+    //Opens the whole of the file for reading
+    public EdgeFileReader(String fileName) throws IOException
+    {
+        this(FileChannel.open(Paths.get(fileName), StandardOpenOption.READ), 0, -1);
+        ownsChannel = true;
+    }
+
+    //Reads the bytes start .. end-1 of an open channel, an end of -1 means the end of the file
+    public EdgeFileReader(FileChannel channel, long start, long end) throws IOException
+    {
+        this.channel = channel;
+        this.end = end < 0 ? channel.size() : end;
+        next = start;
+        map();
+    }
+
+    //map Method - maps the next window of the file, returns false if there is nothing left to read
+    private boolean map() throws IOException
+    {
+        if(next >= end)
+            return false;
+        long len = Math.min(WINDOW, end - next);
+        buf = channel.map(FileChannel.MapMode.READ_ONLY, next, len);
+        next += len;
+        return true;
+    }
+
+    //read Method - returns the next byte of the file or -1 at the end
+    private int read() throws IOException
+    {
+        if(!buf.hasRemaining() && !map())
+            return -1;
+        return buf.get();
+    }
+
+    //position Method - returns the file position of the next byte to be read
+    public long position()
+    {
+        return next - buf.remaining();
+    }
+
+    //hasNextInt Method - skips any white space and returns true if there is another number to read
+    public boolean hasNextInt() throws IOException
+    {
+        int c;
+        do
+        {
+            c = read();
+            if(c < 0)
+                return false;
+        } while(c <= ' ');
+        buf.position(buf.position() - 1); // leave the first character of the number to be read
+        return true;
+    }
+
+    //nextInt Method - parses the next number in the file
+    public int nextInt() throws IOException
+    {
+        int c, n = 0;
+        boolean negative = false;
+
+        if(!hasNextInt())
+            throw new EOFException("Unexpected end of graph file");
+        c = read();
+        if(c == '-')
+        {
+            negative = true;
+            c = read();
+        }
+        if(c < '0' || c > '9')
+            throw new IOException("Unexpected character '" + (char)c + "' at byte " + (position() - 1) + " of graph file");
+        while(c >= '0' && c <= '9')
+        {
+            n = 10*n + (c - '0');
+            c = read();
+        }
+        if(c > ' ')
+            throw new IOException("Unexpected character '" + (char)c + "' at byte " + (position() - 1) + " of graph file");
+        return negative ? -n : n;
+    }//End of nextInt Method
+
+    public void close() throws IOException
+    {
+        if(ownsChannel)
+            channel.close();
+    }
+
+}//End of EdgeFileReader Class
+
+//TraversalListener Interface - told about each step of a graph traversal it is passed to
+//Every method does nothing by default, so the NONE listener costs nothing once the JIT has inlined it.
+//algorithm is the name of the traversal: "DF", "BF", "MST_Prim" or "SPT_Dijkstra"
+interface TraversalListener {
+    TraversalListener NONE = new TraversalListener() {};
+
+    default void traversalStarted(String algorithm, int s) {}
+    //v has been reached for the first time from parent (0 for the start vertex)
+    default void vertexDiscovered(int v, int parent) {}
+    //all the edges of v have been explored
+    default void vertexFinished(int v) {}
+    //the edge v--u has given u the better key (edge weight for Prim, distance for Dijkstra)
+    default void edgeRelaxed(int v, int u, int key) {}
+    //v has joined the tree along the edge parent--v with the given key
+    default void treeEdgeAdded(int parent, int v, int key) {}
+    //result is the weight of the tree for MST_Prim and 0 otherwise
+    default void traversalFinished(String algorithm, long result) {}
+}//End of Interface
+
+//PrintingTraversalListener Class - prints the step by step trace of each traversal to System.out
+//It remembers which traversal it is printing, so each one should be used by one search at a time
+class PrintingTraversalListener implements TraversalListener {
+    private String algorithm = "";
+
+    // convert vertex into char for pretty printing
+    private static char toChar(int u)
+    {  
+        return (char)(u + 64);
+    }
+
+    public void traversalStarted(String algorithm, int s)
+    {
+        this.algorithm = algorithm;
+        switch(algorithm)
+        {
+            case "DF":
+                System.out.println("-------------------------------------");
+                System.out.print("Depth First Graph Traversal\n");
+                break;
+            case "BF":
+                System.out.println("-------------------------------------");
+                System.out.print("Breadth First Graph Traversal\n");
+                break;
+            case "MST_Prim":
+                System.out.println("\n-------------------------------------");
+                System.out.print("Prim's Minimum Spanning Tree Algorithm\n");
+                break;
+            case "SPT_Dijkstra":
+                System.out.println("\n-------------------------------------");
+                System.out.print("Dijkstra's Shortest Path Tree Algorithm\n");
+                break;
+        }
+        System.out.println("Starting with Vertex " + toChar(s));
+        if(algorithm.equals("SPT_Dijkstra"))
+        {
+            System.out.print("\nShortest Path Tree is:\n");
+            System.out.println("Vertex \t Parent    Distance from " + s);
+        }
+    }
+
+    public void vertexDiscovered(int v, int parent)
+    {
+        System.out.println("\nv = " + v);
+        System.out.println(algorithm + " just visited vertex " + toChar(v) + " along edge " + toChar(parent) + "--" + toChar(v));
+    }
+
+    public void treeEdgeAdded(int parent, int v, int key)
+    {
+        if(algorithm.equals("SPT_Dijkstra"))
+        {
+            System.out.println("   " + toChar(v) + " \t   " + toChar(parent) + " \t\t " + key);
+        }
+        else
+        {
+            System.out.println("\nv = " + v);
+            System.out.println(algorithm + " just inserted " + toChar(v) + " into MST along edge " + toChar(parent)  + "--" + toChar(v));
+        }
+    }
+
+    public void traversalFinished(String algorithm, long result)
+    {
+        if(algorithm.equals("DF"))
+            System.out.print("\n\n");
+        else if(algorithm.equals("MST_Prim"))
+            System.out.print("\n\nWeight of MST = " + result + "\n");
+    }
+}//End of PrintingTraversalListener Class
+
+//SptResult Class - the shortest path tree found by SPT_Dijkstra
+class SptResult
+{
+    public final int[] dist;    // dist[v] = length of the shortest path from the start vertex, Integer.MAX_VALUE if v was not reached
+    public final int[] parent;  // parent[v] = the vertex before v on that path, 0 for the start vertex and unreached vertices
+
+    public SptResult(int[] dist, int[] parent)
+    {
+        this.dist = dist;
+        this.parent = parent;
+    }
+}//End of SptResult Class
+
+//PathResult Class - the answer to a point to point shortest path query
+class PathResult
+{
+    public final int distance;  // length of the shortest path, Integer.MAX_VALUE if there is no path
+    public final int[] path;    // the vertices of the path from s to t, empty if there is no path
+    public final int settled;   // vertices the search took out of its queues, how much of the graph it looked at
+
+    public PathResult(int distance, int[] path, int settled)
+    {
+        this.distance = distance;
+        this.path = path;
+        this.settled = settled;
+    }
+}//End of PathResult Class
+
+//NearbyResult Class - the vertices a bounded search settled, closest first
+class NearbyResult
+{
+    public final int[] vertex;  // vertex[i] = the i'th closest vertex to the start, the start itself first
+    public final int[] dist;    // dist[i] = length of the shortest path to vertex[i]
+
+    public NearbyResult(int[] vertex, int[] dist)
+    {
+        this.vertex = vertex;
+        this.dist = dist;
+    }
+
+    public int size()
+    {
+        return vertex.length;
+    }
+}//End of NearbyResult Class
+
+//BfsResult Class - the distances and breadth first tree found by a breadth first search
+class BfsResult
+{
+    public final int[] d;       // d[v] = number of edges from the start vertex to v, Integer.MAX_VALUE if v was not reached
+    public final int[] parent;  // parent[v] = the vertex v was discovered from, 0 for the start vertex and unreached vertices
+    public final long edgesScanned; // number of adjacency entries the search looked at
+
+    public BfsResult(int[] d, int[] parent, long edgesScanned)
+    {
+        this.d = d;
+        this.parent = parent;
+        this.edgesScanned = edgesScanned;
+    }
+}//End of BfsResult Class
+
+//DfsResult Class - what a depth first search found
+class DfsResult
+{
+    public final int[] d;       // d[v] = discovery time of v, 0 if v was not reached
+    public final int[] f;       // f[v] = finish time of v, 0 if v was not reached
+    public final int[] parent;  // parent[v] = the vertex v was discovered from, 0 for start vertices and unreached vertices
+
+    public DfsResult(int V)
+    {
+        d = new int[V+1];
+        f = new int[V+1];
+        parent = new int[V+1];
+    }
+}//End of DfsResult Class
+
+//MstResult Class - a minimum spanning tree as a parent array
+class MstResult
+{
+    public final int[] parent;  // parent[v] = the vertex v joins the tree through, 0 for the start vertex and unreached vertices
+    public final int weight;    // total weight of the tree edges
+
+    public MstResult(int[] parent, int weight)
+    {
+        this.parent = parent;
+        this.weight = weight;
+    }
+
+    //fromEdges Method - turns the edges of a spanning forest of vertices 1..V into a parent array by breadth first
+    //search from s and then from each vertex not yet reached, so the tree holding s is rooted at s and every
+    //other tree at its lowest vertex, the same shape as MST_Prim gives
+    public static MstResult fromEdges(int V, int s, EdgeList tree)
+    {
+        int v, u, i, j, head, tail, weight = 0;
+        int[] count = new int[V+2], adj, parent = new int[V+1], queue = new int[V];
+        boolean[] seen = new boolean[V+1];
+
+        for(i = 0; i < tree.size; ++i)
+        {
+            ++count[tree.u[i]+1];
+            ++count[tree.v[i]+1];
+            weight += tree.w[i];
+        }
+        for(v = 1; v <= V; ++v)
+            count[v+1] += count[v];
+        adj = new int[count[V+1]];
+        int[] next = Arrays.copyOf(count, V+2);
+        for(i = 0; i < tree.size; ++i)
+        {
+            adj[next[tree.u[i]]++] = tree.v[i];
+            adj[next[tree.v[i]]++] = tree.u[i];
+        }
+
+        for(j = 0; j <= V; ++j)
+        {
+            int root = j == 0 ? s : j;
+            if(seen[root])
+                continue;
+            seen[root] = true;
+            head = tail = 0;
+            queue[tail++] = root;
+            while(head < tail)
+            {
+                v = queue[head++];
+                for(i = count[v]; i < count[v+1]; ++i)
+                {
+                    u = adj[i];
+                    if(!seen[u])
+                    {
+                        seen[u] = true;
+                        parent[u] = v;
+                        queue[tail++] = u;
+                    }
+                }
+            }
+        }
+        return new MstResult(parent, weight);
+    }//End of fromEdges Method
+}//End of MstResult Class
+
+//QueryContext Class - the working arrays one search on a graph needs and does not hand back to the caller
+//A Graph keeps finished contexts and gives them to later searches, so searches running at the same time
+//each have their own arrays without allocating them every time. Arrays are made the first time they are asked for
+class QueryContext
+{
+    private final int V;
+    private int[] stack, queue, key;
+    private final SearchScratch[] search = new SearchScratch[2];
+
+    public QueryContext(int V)
+    {
+        this.V = V;
+    }
+
+    //stack Method - the depth first search stack of (vertex, position in adjacency list) pairs
+    public int[] stack()
+    {
+        if(stack == null)
+            stack = new int[2*V];
+        return stack;
+    }
+
+    //queue Method - the breadth first search queue
+    public int[] queue()
+    {
+        if(queue == null)
+            queue = new int[V];
+        return queue;
+    }
+
+    //key Method - keys for Prim's algorithm
+    public int[] key()
+    {
+        if(key == null)
+            key = new int[V+1];
+        return key;
+    }
+
+    //search Method - scratch for a shortest path search, side 0 searches from s and side 1 back from t
+    public SearchScratch search(int side)
+    {
+        if(search[side] == null)
+            search[side] = new SearchScratch(V);
+        return search[side];
+    }
+
+}//End of QueryContext Class
+
+class Graph {
+    
+    // V = number of vertices
+    // E = number of edges
+    // The adjacency lists are stored in compressed sparse row (CSR) form:
+    // the neighbours of v are targets[offsets[v]] .. targets[offsets[v+1]-1]
+    // and weights[i] is the weight of the edge to targets[i]
+    private final int V, E;
+    private final int[] offsets, targets, weights;
+    private final int minWeight, maxWeight; // smallest and largest edge weights, used to pick the queue for SPT_Dijkstra
+    // None of the above change once the graph is built and they are final, so a Graph handed to other threads
+    // by any means is seen fully built and can be searched by many threads at once.
+    // Each search takes its working arrays from contexts and puts them back when it is done, and its
+    // answer comes back in a result object of its own. A traversal that should report its steps is handed
+    // its own TraversalListener, so tracing one search never makes the searches of other threads print
+
+    // working arrays of finished searches, ready for the next one
+    private final ConcurrentLinkedQueue<QueryContext> contexts = new ConcurrentLinkedQueue<>();
+
+    // compare and set on the elements of int arrays, used by the parallel searches
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    
+    
+    // default constructor
+    public Graph(String graphFile)  throws IOException
+    {
+        this(graphFile, false);
+    }
+
+    //Reads the graph from a text file, if dropDuplicates is true repeated edges between two vertices are merged
+    public Graph(String graphFile, boolean dropDuplicates)  throws IOException
+    {
+        this(read(graphFile), dropDuplicates);
+    } //End of Constructor
+
+    private Graph(GraphFile file, boolean dropDuplicates)
+    {
+        this(file.V, file.edges, dropDuplicates);
+    }
+
+    //Builds the graph on vertices 1..V from a list of edges that has already been read
+    public Graph(int V, EdgeList edges, boolean dropDuplicates)
+    {
+        this(V, edges.size, build(V, edges, dropDuplicates));
+    }
+
+    private Graph(int V, int E, int[][] csr)
+    {
+        this(V, E, csr[0], csr[1], csr[2]);
+    }
+
+    //Wraps adjacency arrays that are already laid out in CSR form, used by loaders that build the arrays themselves
+    //Every other constructor ends up here, so each field is set exactly once
+    Graph(int V, int E, int[] offsets, int[] targets, int[] weights)
+    {
+        int min = 0, max = 0;
+
+        //Records the smallest and largest edge weights
+        if(weights.length > 0)
+            min = max = weights[0];
+        for(int w : weights)
+        {
+            if(w < min)
+                min = w;
+            if(w > max)
+                max = w;
+        }
+        this.V = V;
+        this.E = E;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        minWeight = min;
+        maxWeight = max;
+    }
+
+    //GraphFile Class - the vertex count and edges read from a graph text file
+    private static final class GraphFile
+    {
+        final int V;
+        final EdgeList edges;
+
+        GraphFile(int V, EdgeList edges)
+        {
+            this.V = V;
+            this.edges = edges;
+        }
+    }
+
+    //read Method - reads the header and the edges of a graph text file
+    private static GraphFile read(String graphFile) throws IOException
+    {
+        int V, E, e;
+        EdgeList edges;
+
+        try(EdgeFileReader reader = new EdgeFileReader(graphFile))
+        {
+            V = reader.nextInt();
+            E = reader.nextInt();
+            System.out.println("Parts[] = " + V + " " + E);
+
+            edges = new EdgeList(E);
+
+           // read the edges
+            System.out.println("Reading edges from text file");
+            for(e = 1; e <= E; ++e)
+                edges.add(reader.nextInt(), reader.nextInt(), reader.nextInt());
+        }
+        return new GraphFile(V, edges);
+    } //End of read Method
+
+    //build Method - lays out the adjacency lists of all the edges in one go
+    //Each edge u--v is stored twice, as u->v and v->u. The two copies are counting sorted,
+    //first by the vertex they point to and then by the vertex they come from, which gives
+    //every list sorted by vertex in O(V + E) time. The copies are numbered in the order they
+    //were read and the first sort walks them backwards, so a repeated neighbour ends up in
+    //front of the earlier one just as it did when edges were inserted into the lists one at a time
+    //Returns the arrays {offsets, targets, weights}
+    private static int[][] build(int V, EdgeList edges, boolean dropDuplicates)
+    {
+        int v, h, e, src, tgt, n, i;
+        int[] count, order, offsets, targets, weights;
+
+        n = 2*edges.size; // number of edge copies, copy 2e is u->v and copy 2e+1 is v->u
+        count = new int[V+2];
+        offsets = new int[V+2];
+
+        //Counts how many copies point to and come from each vertex
+        for(e = 0; e < edges.size; ++e)
+        {
+            ++count[edges.v[e]+1];
+            ++count[edges.u[e]+1];
+            ++offsets[edges.u[e]+1];
+            ++offsets[edges.v[e]+1];
+        }
+        //Prefix sums give the start of each vertex's block in the two sorts
+        for(v = 1; v <= V; ++v)
+        {
+            count[v+1] += count[v];
+            offsets[v+1] += offsets[v];
+        }
+
+        //First pass - sorts the copies by the vertex they point to, latest copy first
+        order = new int[n];
+        for(h = n-1; h >= 0; --h)
+        {
+            e = h >> 1;
+            tgt = (h & 1) == 0 ? edges.v[e] : edges.u[e];
+            order[count[tgt]++] = h;
+        }
+
+        //Second pass - stable sort by the vertex they come from, straight into the adjacency arrays
+        targets = new int[n];
+        weights = new int[n];
+        System.arraycopy(offsets, 0, count, 0, V+2); // count[v] is now the next free slot in the list of v
+        for(i = 0; i < n; ++i)
+        {
+            h = order[i];
+            e = h >> 1;
+            if((h & 1) == 0)
+            {
+                src = edges.u[e];
+                tgt = edges.v[e];
+            }
+            else
+            {
+                src = edges.v[e];
+                tgt = edges.u[e];
+            }
+            targets[count[src]] = tgt;
+            weights[count[src]] = edges.w[e];
+            ++count[src];
+        }
+
+        if(dropDuplicates)
+            return dropDuplicateEdges(V, offsets, targets, weights);
+        return new int[][] {offsets, targets, weights};
+    } //End of build Method
+
+    //dropDuplicateEdges Method - merges repeated neighbours in each sorted list into one edge
+    //The lightest of the repeated edges is kept as it is the only one a shortest path or spanning tree can use
+    private static int[][] dropDuplicateEdges(int V, int[] offsets, int[] targets, int[] weights)
+    {
+        int v, i, end, next = 0, start = 0;
+
+        for(v = 1; v <= V; ++v)
+        {
+            end = offsets[v+1];
+            offsets[v] = next;
+            for(i = start; i < end; ++i)
+            {
+                if(next > offsets[v] && targets[next-1] == targets[i]) //Same neighbour as the last edge kept
+                {
+                    if(weights[i] < weights[next-1])
+                        weights[next-1] = weights[i];
+                }
+                else
+                {
+                    targets[next] = targets[i];
+                    weights[next] = weights[i];
+                    ++next;
+                }
+            }
+            start = end;
+        }
+        offsets[V+1] = next;
+
+        return new int[][] {offsets, Arrays.copyOf(targets, next), Arrays.copyOf(weights, next)};
+    } //End of dropDuplicateEdges Method
+   
+    // The adjacency arrays are shared with the loaders and engines in this file, they must not be modified
+    int vertexCount() { return V; }
+    int edgeCount() { return E; }
+    int[] offsets() { return offsets; }
+    int[] targets() { return targets; }
+    int[] weights() { return weights; }
+    int minWeight() { return minWeight; }
+    int maxWeight() { return maxWeight; }
+
+    //acquire Method - working arrays for one search, reused from an earlier search when one has finished
+    private QueryContext acquire()
+    {
+        QueryContext c = contexts.poll();
+        return c != null ? c : new QueryContext(V);
+    }
+
+    //release Method - hands the working arrays back once the search no longer needs them
+    private void release(QueryContext c)
+    {
+        contexts.offer(c);
+    }
+
+    // convert vertex into char for pretty printing
+    private char toChar(int u)
+    {  
+        return (char)(u + 64);
+    }
+    
+    // method to display the graph representation
+    public void display() {
+        int v, i;
+        
+        for(v=1; v<=V; ++v){
+            System.out.print("\nadj[" + toChar(v) + "] ->" );
+            for(i = offsets[v]; i < offsets[v+1]; ++i) 
+                System.out.print(" |" + toChar(targets[i]) + " | " + weights[i] + "| ->");    
+        }
+        System.out.println("");
+    }
+
+    //Depth first search Method - takes in an integer s which specifies which vertex to start at
+    //Called by the main method
+    //A vertex is white until d[v] is set, grey while f[v] is still 0 and black once it is finished
+    public DfsResult DF( int s) 
+    {
+        return DF(s, TraversalListener.NONE);
+    }
+
+    //Depth first search that tells listener about each step
+    public DfsResult DF(int s, TraversalListener listener)
+    {
+        DfsResult r = new DfsResult(V);
+        QueryContext c = acquire();
+        
+        listener.traversalStarted("DF", s);
+        
+        //Calls dfVisit method and passes in s  
+        dfVisit(s, 0, r, c.stack(), listener);         
+        
+        listener.traversalFinished("DF", 0);
+        release(c);
+        return r;
+    
+    } //End of DF Method
+
+    //Depth first search of the whole graph - runs dfVisit from every vertex that is still white, in vertex order,
+    //so every component gets its own tree in parent[] with discovery and finish times running on across them
+    public DfsResult depthFirstForest()
+    {
+        return depthFirstForest(TraversalListener.NONE);
+    }
+
+    public DfsResult depthFirstForest(TraversalListener listener)
+    {
+        int v, id = 0;
+        DfsResult r = new DfsResult(V);
+        QueryContext c = acquire();
+
+        listener.traversalStarted("DF", 1);
+
+        for(v=1; v<=V; ++v)
+            if(r.d[v] == 0)
+                id = dfVisit(v, id, r, c.stack(), listener);
+
+        listener.traversalFinished("DF", 0);
+        release(c);
+        return r;
+
+    } //End of depthFirstForest Method
+
+    //Depth first search Method - takes in an integer s which specifies which vertex to start at
+    //Called by DF and depthFirstForest
+    //Rather than calling itself for each tree edge it keeps its own stack of (vertex, position in the
+    //adjacency list) pairs, so long paths cannot overflow the thread stack. The vertices are discovered
+    //and finished in the same order as the recursive version, giving the same d[], f[] and parent[].
+    //Times carry on from id and the last time used is returned
+    private int dfVisit(int s, int id, DfsResult r, int[] stack, TraversalListener listener)
+    {
+        int i, u, v, top;
+        int[] d = r.d, f = r.f, parent = r.parent;
+
+        ++id;
+        d[s] = id; //Sets the discovery time of s to signify it has been discovered
+        listener.vertexDiscovered(s, parent[s]);
+        top = 0;
+        stack[top++] = s;
+        stack[top++] = offsets[s];
+
+        while(top > 0)
+        {
+            v = stack[top-2];
+            i = stack[top-1];
+            //Skips the edges of v that lead to vertices that have already been visited
+            while(i < offsets[v+1] && d[targets[i]] != 0)
+                ++i;
+
+            if(i < offsets[v+1]) //Goes down the next tree edge
+            {
+                u = targets[i]; //Sets u to the connected vertex
+                stack[top-1] = i+1; //Carries on after this edge when the search comes back to v
+                parent[u] = v; //Sets the parent of vertex u
+                ++id;
+                d[u] = id; //Sets the discovery time of u to signify it has been discovered
+                listener.vertexDiscovered(u, v);
+                stack[top++] = u;
+                stack[top++] = offsets[u];
+            }
+            else //All the edges of v have been explored
+            {
+                top -= 2;
+                ++id;
+                f[v] = id; //Sets the finish time of v to signify it has been visited/finished
+                listener.vertexFinished(v);
+            }
+        }
+        return id;
+
+    } //End of dfVisit method
+
+    //Breadth first search method - takes in an integer s which signifies the vertex to start at 
+    //Called in main method
+    //The queue is a plain int array with room for every vertex, each vertex goes into it at most once
+    //so it never fills up. Returns the distance and parent of every vertex in a BfsResult
+    public BfsResult breadthFirst(int s) {
+
+        return breadthFirst(s, TraversalListener.NONE);
+    }
+
+    //Breadth first search that tells listener about each step
+    public BfsResult breadthFirst(int s, TraversalListener listener) {
+
+        listener.traversalStarted("BF", s);
+        int v, u, i, head, tail;
+        long scanned = 0;
+        int[] d = new int[V+1];      //d[v] = number of edges from s to v
+        int[] parent = new int[V+1]; //Used to keep track of the parent of each vertex
+        QueryContext c = acquire();
+        int[] queue = c.queue();
+
+        //Marks every vertex as not yet discovered
+        for(v=1; v<=V; ++v)
+            d[v] = Integer.MAX_VALUE;
+        d[s] = 0;
+        head = tail = 0;
+        queue[tail++] = s; //Puts s on the back of the queue
+        listener.vertexDiscovered(s, 0);
+
+        while(head < tail) //Keeps looping until the queue is empty
+        {
+            v = queue[head++]; //Takes the vertex at the front of the queue
+            scanned += offsets[v+1] - offsets[v];
+            //Loops through all edges from vertex v
+            for(i = offsets[v]; i < offsets[v+1]; ++i) 
+            {
+                u = targets[i]; //Sets u to the connected vertex
+                if(d[u] == Integer.MAX_VALUE) //If the vertex u has not been discovered
+                {
+                    d[u] = d[v] + 1;
+                    parent[u] = v; //Sets the parent of vertex u
+                    queue[tail++] = u;
+                    listener.vertexDiscovered(u, v);
+                }
+            }
+            listener.vertexFinished(v);
+        }
+        listener.traversalFinished("BF", 0);
+        release(c);
+
+        return new BfsResult(d, parent, scanned);
+    } //End of breadthFirst method
+
+    //Direction optimizing breadth first search (Beamer, Asanovic and Patterson) - gives the same d[] as breadthFirst
+    //Each level is expanded either top down, where the frontier looks at its neighbours, or bottom up,
+    //where every undiscovered vertex looks for a neighbour in the frontier and stops at the first one.
+    //Bottom up wins on the big middle levels of low diameter graphs, where most edges top down would
+    //look at lead to vertices that are already discovered. The discovered set is a bitset, and so is the
+    //frontier while searching bottom up. Top down levels keep the frontier as a list of vertices so that
+    //long thin graphs do not pay for a pass over the whole bitset on every level
+    public BfsResult breadthFirstDirectionOptimizing(int s)
+    {
+        return breadthFirstDirectionOptimizing(s, TraversalListener.NONE);
+    }
+
+    public BfsResult breadthFirstDirectionOptimizing(int s, TraversalListener listener)
+    {
+        final int ALPHA = 14, BETA = 24; // switching thresholds from the paper
+        int v, u, i, w, level, nf, next;
+        long bits, scanned = 0, mf, mu, nextMf;
+        boolean topDown = true;
+        int[] d = new int[V+1];
+        int[] parent = new int[V+1];
+        int[] queue = new int[V];                 // frontier as a list, used top down
+        int[] nextQueue = new int[V];
+        int[] swapQueue;
+        long[] seen = new long[(V >> 6) + 1];     // bit v is set once v has been discovered
+        long[] frontier = new long[seen.length];  // frontier as a bitset, used bottom up
+        long[] nextFrontier = new long[seen.length];
+        long[] swap;
+
+        listener.traversalStarted("BF", s);
+        for(v = 1; v <= V; ++v)
+            d[v] = Integer.MAX_VALUE;
+        d[s] = 0;
+        seen[0] |= 1L; // there is no vertex 0, marking it keeps it out of the bottom up scans
+        seen[s >> 6] |= 1L << s;
+        queue[0] = s;
+        listener.vertexDiscovered(s, 0);
+
+        nf = 1;                                // vertices in the frontier
+        mf = offsets[s+1] - offsets[s];        // edges out of the frontier
+        mu = offsets[V+1] - mf;                // edges out of undiscovered vertices
+        level = 0;
+
+        while(nf > 0)
+        {
+            //Changes direction, converting the frontier to the form the new direction uses
+            if(topDown && mf > mu / ALPHA)
+            {
+                topDown = false;
+                Arrays.fill(frontier, 0L);
+                for(i = 0; i < nf; ++i)
+                    frontier[queue[i] >> 6] |= 1L << queue[i];
+            }
+            else if(!topDown && nf < V / BETA)
+            {
+                topDown = true;
+                i = 0;
+                for(w = 0; w < frontier.length; ++w)
+                    for(bits = frontier[w]; bits != 0; bits &= bits - 1)
+                        queue[i++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+            }
+
+            next = 0;
+            nextMf = 0;
+            if(topDown)
+            {
+                //Every frontier vertex discovers its undiscovered neighbours
+                for(int k = 0; k < nf; ++k)
+                {
+                    v = queue[k];
+                    scanned += offsets[v+1] - offsets[v];
+                    for(i = offsets[v]; i < offsets[v+1]; ++i)
+                    {
+                        u = targets[i];
+                        if((seen[u >> 6] & (1L << u)) == 0)
+                        {
+                            seen[u >> 6] |= 1L << u;
+                            d[u] = level + 1;
+                            parent[u] = v;
+                            nextQueue[next++] = u;
+                            nextMf += offsets[u+1] - offsets[u];
+                            listener.vertexDiscovered(u, v);
+                        }
+                    }
+                }
+                swapQueue = queue;
+                queue = nextQueue;
+                nextQueue = swapQueue;
+            }
+            else
+            {
+                //Every undiscovered vertex looks for a parent in the frontier
+                Arrays.fill(nextFrontier, 0L);
+                for(w = 0; w < seen.length; ++w)
+                {
+                    for(bits = ~seen[w]; bits != 0; bits &= bits - 1)
+                    {
+                        u = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        if(u > V)
+                            break;
+                        for(i = offsets[u]; i < offsets[u+1]; ++i)
+                        {
+                            ++scanned;
+                            v = targets[i];
+                            if((frontier[v >> 6] & (1L << v)) != 0)
+                            {
+                                seen[u >> 6] |= 1L << u;
+                                nextFrontier[u >> 6] |= 1L << u;
+                                d[u] = level + 1;
+                                parent[u] = v;
+                                ++next;
+                                nextMf += offsets[u+1] - offsets[u];
+                                listener.vertexDiscovered(u, v);
+                                break;
+                            }
+                        }
+                    }
+                }
+                swap = frontier;
+                frontier = nextFrontier;
+                nextFrontier = swap;
+            }
+
+            mu -= nextMf;
+            nf = next;
+            mf = nextMf;
+            ++level;
+        }
+        listener.traversalFinished("BF", 0);
+
+        return new BfsResult(d, parent, scanned);
+    } //End of breadthFirstDirectionOptimizing method
+
+    //Parallel breadth first search - expands each level of the search across the threads of pool
+    //The frontier is cut into blocks and each block is explored by one task. A task claims a vertex by
+    //changing its d[] entry from "not reached" to the next level with a compare and set, so only one
+    //task discovers each vertex, and it writes the vertices it claims into its own buffer. The buffers
+    //are joined into the next frontier once the whole level is done. d[] is the same as breadthFirst gives,
+    //parent[] is a valid breadth first tree but may differ where a vertex has several parents on the level above.
+    //Steps are not reported to the listener as they happen on several threads at once
+    public BfsResult breadthFirstParallel(int s, ForkJoinPool pool)
+    {
+        final int BLOCK = 1024; // frontier vertices explored by one task
+        int[] d = new int[V+1];
+        int[] parent = new int[V+1];
+        int[] frontier = new int[V];
+        int nf, level, blocks, b;
+        long scanned = 0;
+
+        Arrays.fill(d, 1, V+1, Integer.MAX_VALUE);
+        d[s] = 0;
+        frontier[0] = s;
+        nf = 1;
+
+        for(level = 0; nf > 0; ++level)
+        {
+            final int size = nf, nextLevel = level + 1;
+            final int[] current = frontier;
+            blocks = (nf + BLOCK - 1) / BLOCK;
+            int[][] found = new int[blocks][]; // vertices claimed by each task
+            int[] count = new int[blocks];
+            long[] edges = new long[blocks];
+
+            pool.submit(() -> IntStream.range(0, found.length).parallel().forEach(k -> {
+                int[] buf = new int[64];
+                int n = 0;
+                for(int j = k * BLOCK; j < Math.min(size, (k+1) * BLOCK); ++j)
+                {
+                    int v = current[j];
+                    edges[k] += offsets[v+1] - offsets[v];
+                    for(int i = offsets[v]; i < offsets[v+1]; ++i)
+                    {
+                        int u = targets[i];
+                        if(d[u] == Integer.MAX_VALUE && INTS.compareAndSet(d, u, Integer.MAX_VALUE, nextLevel))
+                        {
+                            parent[u] = v;
+                            if(n == buf.length)
+                                buf = Arrays.copyOf(buf, 2*n);
+                            buf[n++] = u;
+                        }
+                    }
+                }
+                found[k] = buf;
+                count[k] = n;
+            })).join();
+
+            //Joins the buffers of the tasks into the next frontier
+            nf = 0;
+            for(b = 0; b < blocks; ++b)
+            {
+                System.arraycopy(found[b], 0, frontier, nf, count[b]);
+                nf += count[b];
+                scanned += edges[b];
+            }
+        }
+
+        return new BfsResult(d, parent, scanned);
+    } //End of breadthFirstParallel method
+
+    //Prim's Minimum Spanning Tree (MST) Algorithm - takes in an integer s which specifies the vertex to start at
+    //Returns the parent array and weight of the tree
+	public MstResult MST_Prim(int s)
+	{
+        return MST_Prim(s, HeapType.BINARY, TraversalListener.NONE);
+	}
+
+    //Prim's algorithm that tells listener about each step
+	public MstResult MST_Prim(int s, TraversalListener listener)
+	{
+        return MST_Prim(s, HeapType.BINARY, listener);
+	}
+
+    //Prim's algorithm using the given type of priority queue
+	public MstResult MST_Prim(int s, HeapType heapType)
+	{
+        return MST_Prim(s, heapType, TraversalListener.NONE);
+	}
+
+	public MstResult MST_Prim(int s, HeapType heapType, TraversalListener listener)
+	{
+        
+        if(heapType.monotone())
+            throw new IllegalArgumentException(heapType + " queue needs monotone keys and cannot be used for Prim's algorithm");
+        listener.traversalStarted("MST_Prim", s);
+        int v, u;
+        int wgt =0 ,wgt_sum = 0;
+        int[]  dist, parent;
+        int i;
+        QueryContext c = acquire();
+        
+
+        //code here
+        dist = c.key(); //Used to keep track of the distance of each edge 
+        parent = new int[V+1]; //Used to keep track of the parent of each vertex
+        
+        //Loops through all the vertices and resets the arrays
+        for(v = 1; v <= V; ++v)
+        {
+            dist[v] = Integer.MAX_VALUE;
+            parent[v] = 0;
+        }
+
+        dist[s] = 0; //sets the distance of the vertex s to 0
+
+        IndexedPriorityQueue h = heapType.create(V, dist, maxWeight); //Creates a new priority queue keyed by the dist array
+        h.insert(s); //Calls the heap insert method and passes in s 
+        
+        while (!h.isEmpty())  //Keeps looping while the heap is not empty
+        {
+            v = h.removeMin(); //Calls the heap removeMin method sets v to the integer that is removed/returned 
+            dist[v] = -dist[v]; //sets the distance of the vertex v to negative to signify it is now in the MST
+            listener.treeEdgeAdded(parent[v], v, -dist[v]);
+            //Loops through all the edges from v
+            for(i = offsets[v]; i < offsets[v+1]; ++i)
+            {
+                u = targets[i];
+                wgt = weights[i];
+                if(wgt < dist[u]) //If the weight of the edge is less then the distance already saved for the vertex u
+                {
+                    dist[u] = wgt;
+                    parent[u] = v;
+                    listener.edgeRelaxed(v, u, wgt);
+                    if(!h.contains(u)) //If the vertex u is not in the heap
+                    {
+                        h.insert(u); //Calls the heap insert method and passes in u
+                    }
+                    else
+                    {
+                        h.decreaseKey(u); //Moves u up the heap to its new place
+                    }
+                }
+
+            }
+        }
+
+        //Loops through the distance array and multiplies it by -1 and adds it to the total weight sum
+        for(int x = 1; x < V+1; ++x)
+        {
+            wgt_sum += dist[x] * -1;
+        }
+
+        release(c);
+
+        listener.traversalFinished("MST_Prim", wgt_sum);
+
+        return new MstResult(parent, wgt_sum);
+	}//End of MST_Prim method
+    
+    public void showMST(MstResult mst)
+    {
+            System.out.print("\n\nMinimum Spanning tree parent array is:\n");
+            for(int v = 1; v <= V; ++v)
+                System.out.println(toChar(v) + " -> " + toChar(mst.parent[v]));
+            System.out.println("");
+    }
+
+    //Dijkstra's Shortest Path Tree (SPT) algorithm
+    //Uses the queue that suits the edge weights of the graph, see shortestPathHeapType
+    public SptResult SPT_Dijkstra(int s)
+    {
+        return SPT_Dijkstra(s, shortestPathHeapType(), TraversalListener.NONE);
+    }
+
+    //Dijkstra's algorithm that tells listener about each step
+    public SptResult SPT_Dijkstra(int s, TraversalListener listener)
+    {
+        return SPT_Dijkstra(s, shortestPathHeapType(), listener);
+    }
+
+    //shortestPathHeapType Method - picks the priority queue for SPT_Dijkstra from the edge weights read at load time
+    //The keys Dijkstra's algorithm removes from its queue never go down when the weights are non negative, so
+    //integer monotone queues can be used. Dial's buckets step through every key up to the largest distance,
+    //which can be C*V for a largest weight C, so they cost O(E + C*V) against O(E log V) for a heap. They are
+    //only used when C is below 256 and C*V is no more than E*log2(V), otherwise a radix heap is used.
+    //Negative weights fall back to the binary heap
+    public HeapType shortestPathHeapType()
+    {
+        final int MAX_BUCKET_WEIGHT = 256;
+        if(minWeight < 0)
+            return HeapType.BINARY;
+        long logV = 64 - Long.numberOfLeadingZeros(Math.max(V, 1));
+        if(maxWeight < MAX_BUCKET_WEIGHT && (long)maxWeight * V <= targets.length * logV)
+            return HeapType.BUCKET;
+        return HeapType.RADIX;
+    }
+
+    //Dijkstra's algorithm using the given type of priority queue
+    public SptResult SPT_Dijkstra(int s, HeapType heapType)
+    {
+        return SPT_Dijkstra(s, heapType, TraversalListener.NONE);
+    }
+
+    public SptResult SPT_Dijkstra(int s, HeapType heapType, TraversalListener listener)
+    {
+        listener.traversalStarted("SPT_Dijkstra", s);
+        int v,u;
+        int wgt = 0;
+        int[] dist,parent;
+        int i;
+
+        dist = new int[V+1]; //Used to keep track of the distance of each edge 
+        parent = new int[V+1]; //Used to keep track of the parent of each vertex
+
+        //Loops through all the vertices and resets the arrays
+        for(v=1;v <= V; ++v)
+        {
+            dist[v] = Integer.MAX_VALUE;
+            parent[v] = 0;
+        }
+
+        dist[s] = 0; //sets the distance of the vertex s to 0
+        IndexedPriorityQueue pq = heapType.create(V, dist, maxWeight); //Creates a new priority queue keyed by the dist array
+        pq.insert(s); //Calls the heap insert method and passes in s
+
+        while(!pq.isEmpty()) //Keeps looping while the heap is not empty
+        {
+            v = pq.removeMin(); //Calls the heap removeMin method sets v to the integer that is removed/returned 
+            listener.treeEdgeAdded(parent[v], v, dist[v]);
+
+            //Loops through all the edges from v
+            for(i = offsets[v]; i < offsets[v+1]; ++i)
+            {
+                u = targets[i];
+                wgt = weights[i];
+                if(dist[v] + wgt < dist[u]) //If the weight of the edge plus the distance for vertex v we already have is less then the distance we already have for the vertex u
+                {
+                    dist[u] = dist[v] + wgt; //Sets distance of vertex u to the distance of vertex v we already have plus the weight
+                    if(!pq.contains(u)) //If the vertex u is not in the heap
+                    {
+                        pq.insert(u);//Calls the heap insert method and passes in u
+                    }
+                    else
+                    {
+                        pq.decreaseKey(u); //Moves u up the heap to its new place
+                    }
+                    parent[u] = v; //Sets the parent of vertex u to vertex v
+                    listener.edgeRelaxed(v, u, dist[u]);
+                }
+
+            }
+        }
+        listener.traversalFinished("SPT_Dijkstra", 0);
+
+        return new SptResult(dist, parent);
+    }//End of SPT_Dijkstra method
+
+    //shortestPath Method - finds the shortest path from s to t, stopping as soon as t is settled
+    public PathResult shortestPath(int s, int t)
+    {
+        return shortestPath(s, t, false);
+    }
+
+    //shortestPath Method - if bidirectional is true a second search runs backwards from t, and the two stop once
+    //the last keys they removed add up to at least the best s-t path seen where they meet. The graph is undirected
+    //so the backward search follows the same adjacency lists as the forward one.
+    //The searches work in SearchScratch arrays that reset in constant time, so a query that stops after
+    //settling a few vertices does not pay for the size of the graph
+    public PathResult shortestPath(int s, int t, boolean bidirectional)
+    {
+        int v, u, i, settled = 0;
+
+        if(s == t)
+            return new PathResult(0, new int[] {s}, 0);
+        if(bidirectional)
+            return bidirectionalPath(s, t);
+
+        QueryContext c = acquire();
+        SearchScratch search = c.search(0);
+        PathResult r = null;
+        search.reset();
+        search.reach(s, 0, 0, -1);
+        while((v = search.next()) != -1)
+        {
+            ++settled;
+            if(v == t) //t is settled, its distance cannot improve
+            {
+                r = new PathResult(search.dist(t), path(s, t, search), settled);
+                break;
+            }
+            for(i = offsets[v]; i < offsets[v+1]; ++i)
+            {
+                u = targets[i];
+                if(search.dist(v) + weights[i] < search.dist(u))
+                    search.reach(u, search.dist(v) + weights[i], v, i);
+            }
+        }
+        release(c);
+        return r != null ? r : new PathResult(Integer.MAX_VALUE, new int[0], settled);
+    } //End of shortestPath Method
+
+    //bidirectionalPath Method - the bidirectional search for shortestPath
+    private PathResult bidirectionalPath(int s, int t)
+    {
+        int v, u, i, side, meet = 0, settled = 0, other;
+        long best = Long.MAX_VALUE;     // length of the best s-t path found so far
+        long[] last = {0, 0};           // the last key each search removed, no key left in its queue is smaller
+        QueryContext c = acquire();
+        SearchScratch[] search = {c.search(0), c.search(1)}; // [0] from s, [1] from t
+
+        search[0].reset();
+        search[1].reset();
+        search[0].reach(s, 0, 0, -1);
+        search[1].reach(t, 0, 0, -1);
+
+        while(last[0] + last[1] < best)
+        {
+            //Advances the search that has gone the shorter distance
+            side = last[0] <= last[1] ? 0 : 1;
+            SearchScratch d = search[side];
+            if((v = d.next()) == -1) //Everything this side can reach is settled
+                break;
+            last[side] = d.dist(v);
+            ++settled;
+            for(i = offsets[v]; i < offsets[v+1]; ++i)
+            {
+                u = targets[i];
+                if(d.dist(v) + weights[i] < d.dist(u))
+                    d.reach(u, d.dist(v) + weights[i], v, i);
+                //The two searches meet at u
+                other = search[1-side].dist(u);
+                if(other != Integer.MAX_VALUE && (long)d.dist(u) + other < best)
+                {
+                    best = (long)d.dist(u) + other;
+                    meet = u;
+                }
+            }
+        }
+        if(best == Long.MAX_VALUE)
+        {
+            release(c);
+            return new PathResult(Integer.MAX_VALUE, new int[0], settled);
+        }
+
+        //Joins the path from s to the meeting vertex and the path from there to t
+        int[] front = path(s, meet, search[0]), back = path(t, meet, search[1]);
+        release(c);
+        int[] p = Arrays.copyOf(front, front.length + back.length - 1);
+        for(i = 0; i < back.length - 1; ++i)
+            p[front.length + i] = back[back.length - 2 - i];
+        return new PathResult((int)best, p, settled);
+    } //End of bidirectionalPath Method
+
+    //withinRadius Method - every vertex whose shortest path from s is no longer than radius, closest first
+    public NearbyResult withinRadius(int s, int radius)
+    {
+        return boundedSearch(s, radius, Integer.MAX_VALUE);
+    }
+
+    //nearest Method - the k vertices closest to s, s itself included, closest first
+    //Fewer are returned if fewer than k vertices can be reached from s
+    public NearbyResult nearest(int s, int k)
+    {
+        return boundedSearch(s, Integer.MAX_VALUE, k);
+    }
+
+    //boundedSearch Method - Dijkstra's algorithm from s that stops once the next vertex is further than radius
+    //or k vertices are settled. Edges leading past radius are never queued. The scratch arrays reset in
+    //constant time, so the work done depends on how many vertices come back rather than on V
+    private NearbyResult boundedSearch(int s, int radius, int k)
+    {
+        int v, u, i, d, n = 0;
+        int[] vertex = new int[16], dist = new int[16];
+        QueryContext c = acquire();
+        SearchScratch search = c.search(0);
+
+        search.reset();
+        search.reach(s, 0, 0, -1);
+        while(n < k && (v = search.next()) != -1)
+        {
+            d = search.dist(v);
+            if(d > radius)
+                break;
+            if(n == vertex.length)
+            {
+                vertex = Arrays.copyOf(vertex, 2*n);
+                dist = Arrays.copyOf(dist, 2*n);
+            }
+            vertex[n] = v;
+            dist[n] = d;
+            ++n;
+            for(i = offsets[v]; i < offsets[v+1]; ++i)
+            {
+                u = targets[i];
+                if(d + weights[i] <= radius && d + weights[i] < search.dist(u))
+                    search.reach(u, d + weights[i], v, i);
+            }
+        }
+        release(c);
+        return new NearbyResult(Arrays.copyOf(vertex, n), Arrays.copyOf(dist, n));
+    } //End of boundedSearch Method
+
+    //distanceMatrix Method - m[i][j] = length of the shortest path from from[i] to to[j],
+    //Integer.MAX_VALUE if there is none. The rows are searched in parallel on the threads of pool, each
+    //search in its own pooled scratch arrays, and each stops as soon as every target is settled
+    public int[][] distanceMatrix(int[] from, int[] to, ForkJoinPool pool)
+    {
+        int[][] m = new int[from.length][];
+        boolean[] isTarget = new boolean[V+1];
+        int distinct = 0;
+
+        for(int t : to)
+        {
+            if(!isTarget[t])
+                ++distinct;
+            isTarget[t] = true;
+        }
+        final int count = distinct;
+        pool.submit(() -> IntStream.range(0, from.length).parallel()
+                .forEach(i -> m[i] = distancesTo(from[i], to, isTarget, count))).join();
+        return m;
+    } //End of distanceMatrix Method
+
+    //distancesTo Method - one row of distanceMatrix, Dijkstra's algorithm from s until count targets are settled
+    private int[] distancesTo(int s, int[] to, boolean[] isTarget, int count)
+    {
+        int v, u, i, j, d;
+        int[] row = new int[to.length];
+        QueryContext c = acquire();
+        SearchScratch search = c.search(0);
+
+        search.reset();
+        search.reach(s, 0, 0, -1);
+        while(count > 0 && (v = search.next()) != -1)
+        {
+            if(isTarget[v])
+                --count;
+            d = search.dist(v);
+            for(i = offsets[v]; i < offsets[v+1]; ++i)
+            {
+                u = targets[i];
+                if(d + weights[i] < search.dist(u))
+                    search.reach(u, d + weights[i], v, i);
+            }
+        }
+        //Every target is settled unless the search ran out, and then the ones not reached are Integer.MAX_VALUE
+        for(j = 0; j < row.length; ++j)
+            row[j] = search.dist(to[j]);
+        release(c);
+        return row;
+    } //End of distancesTo Method
+
+    //path Method - follows the parents of a search back from t to s and returns the vertices in order from s
+    private static int[] path(int s, int t, SearchScratch search)
+    {
+        int n = 1, v, i;
+        for(v = t; v != s; v = search.parent(v))
+            ++n;
+        int[] p = new int[n];
+        for(v = t, i = n - 1; i >= 0; v = search.parent(v), --i)
+            p[i] = v;
+        return p;
+    }
 
-    }//End of SPT_Dijkstra method
-
 
 }//End of Graph class
 
+//ParallelGraphLoader Class - loads a graph text file using several threads
+//The edge lines are split into byte ranges that start and end on line breaks and each range is
+//parsed on a ForkJoinPool into its own EdgeList. The adjacency arrays are then filled in parallel:
+//the vertex degrees are counted, turned into list offsets with a parallel prefix sum, and every
+//list is sorted on its own. The result is the same Graph that Graph(String) builds from the file
+class ParallelGraphLoader
+{
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final int RANGES_PER_THREAD = 4; // extra ranges even out the work between threads
+
+    //load Method - loads the file using one thread per processor
+    public static Graph load(String graphFile) throws IOException
+    {
+        return load(graphFile, Runtime.getRuntime().availableProcessors());
+    }
+
+    //load Method - loads the file using the given number of threads
+    public static Graph load(String graphFile, int threads) throws IOException
+    {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try(FileChannel channel = FileChannel.open(Paths.get(graphFile), StandardOpenOption.READ))
+        {
+            return load(channel, threads * RANGES_PER_THREAD, pool);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    private static Graph load(FileChannel channel, int ranges, ForkJoinPool pool) throws IOException
+    {
+        int V, E, r, total;
+        long first, size;
+        long[] start;
+        EdgeList[] parts;
+
+        //The header is read on its own, the edges start on the byte after it
+        EdgeFileReader header = new EdgeFileReader(channel, 0, -1);
+        V = header.nextInt();
+        E = header.nextInt();
+        first = header.position();
+        size = channel.size();
+
+        //Byte ranges of roughly equal size, each moved forward to the start of a line
+        start = new long[ranges+1];
+        for(r = 0; r < ranges; ++r)
+            start[r] = lineStart(channel, first + (size - first) * r / ranges, first);
+        start[ranges] = size;
+
+        //Parses every range into its own list of edges
+        parts = new EdgeList[ranges];
+        try
+        {
+            pool.submit(() -> IntStream.range(0, ranges).parallel().forEach(k -> parts[k] = parse(channel, start[k], start[k+1]))).join();
+        }
+        catch(UncheckedIOException ex)
+        {
+            throw ex.getCause();
+        }
+
+        total = 0;
+        for(r = 0; r < ranges; ++r)
+            total += parts[r].size;
+        if(total < E)
+            throw new EOFException("Graph file has " + total + " edges but the header says " + E);
+
+        return pool.submit(() -> build(V, E, parts)).join();
+    }//End of load Method
+
+    //lineStart Method - returns the position of the first line that starts at or after pos
+    private static long lineStart(FileChannel channel, long pos, long first) throws IOException
+    {
+        ByteBuffer b = ByteBuffer.allocate(256);
+        long size = channel.size();
+
+        if(pos <= first)
+            return first;
+        --pos; // a line starts at pos if the byte before it is a line break
+        while(pos < size)
+        {
+            b.clear();
+            int n = channel.read(b, pos);
+            for(int i = 0; i < n; ++i)
+            {
+                if(b.get(i) == '\n')
+                    return pos + i + 1;
+            }
+            pos += n;
+        }
+        return size;
+    }//End of lineStart Method
+
+    //parse Method - reads the edges in the bytes start .. end-1 of the file
+    private static EdgeList parse(FileChannel channel, long start, long end)
+    {
+        EdgeList edges = new EdgeList((int)Math.min((end - start) / 8, Integer.MAX_VALUE - 8));
+        if(start >= end) //Small files give several ranges moved to the same line start
+            return edges;
+        try
+        {
+            EdgeFileReader reader = new EdgeFileReader(channel, start, end);
+            while(reader.hasNextInt())
+                edges.add(reader.nextInt(), reader.nextInt(), reader.nextInt());
+        }
+        catch(IOException ex)
+        {
+            throw new UncheckedIOException(ex);
+        }
+        return edges;
+    }//End of parse Method
+
+    //build Method - lays out the adjacency arrays for the first E edges, must run inside the pool
+    //Each edge u--v is stored as the two copies u->v and v->u, numbered 2e and 2e+1 in the order
+    //they were read. A copy is kept as the key (vertex << 32 | (MAX - copy number)) so sorting a list
+    //puts it in vertex order with the later copy of a repeated neighbour first, as Graph(String) does
+    private static Graph build(int V, int E, EdgeList[] parts)
+    {
+        int[] eu = new int[E], ev = new int[E], ew = new int[E];
+        int[] from = new int[parts.length];
+        int[] offsets = new int[V+2], next;
+        long[] keys;
+        int r, n = 0;
+
+        //Joins the lists of the ranges into one list of the first E edges
+        for(r = 0; r < parts.length; ++r)
+        {
+            from[r] = n;
+            n += parts[r].size;
+        }
+        IntStream.range(0, parts.length).parallel().forEach(k -> {
+            int len = Math.max(0, Math.min(parts[k].size, E - from[k]));
+            System.arraycopy(parts[k].u, 0, eu, from[k], len);
+            System.arraycopy(parts[k].v, 0, ev, from[k], len);
+            System.arraycopy(parts[k].w, 0, ew, from[k], len);
+        });
+
+        //Degree of every vertex, then a parallel prefix sum gives the start of each list
+        IntStream.range(0, E).parallel().forEach(e -> {
+            INTS.getAndAdd(offsets, eu[e]+1, 1);
+            INTS.getAndAdd(offsets, ev[e]+1, 1);
+        });
+        Arrays.parallelPrefix(offsets, Integer::sum);
+
+        //Drops every copy into its list, in whatever order the threads get there
+        keys = new long[2*E];
+        next = Arrays.copyOf(offsets, V+1);
+        IntStream.range(0, E).parallel().forEach(e -> {
+            keys[(int)INTS.getAndAdd(next, eu[e], 1)] = key(ev[e], 2L*e);
+            keys[(int)INTS.getAndAdd(next, ev[e], 1)] = key(eu[e], 2L*e + 1);
+        });
+
+        //Sorts each list, then splits the keys back into vertices and weights
+        int[] targets = new int[2*E], weights = new int[2*E];
+        IntStream.rangeClosed(1, V).parallel().forEach(v -> {
+            Arrays.sort(keys, offsets[v], offsets[v+1]);
+            for(int i = offsets[v]; i < offsets[v+1]; ++i)
+            {
+                long copy = 0xFFFFFFFFL - (keys[i] & 0xFFFFFFFFL);
+                targets[i] = (int)(keys[i] >>> 32);
+                weights[i] = ew[(int)(copy >> 1)];
+            }
+        });
+
+        return new Graph(V, E, offsets, targets, weights);
+    }//End of build Method
+
+    private static long key(int vert, long copy)
+    {
+        return ((long)vert << 32) | (0xFFFFFFFFL - copy);
+    }
+
+}//End of ParallelGraphLoader Class
+
+//GraphSnapshot Class - saves a built graph in a binary file that can be loaded again without parsing
+//Layout (big endian):  magic "GSNP", version, V, E, n = number of adjacency entries,
+//                      offsets[0..V+1], targets[0..n-1], weights[0..n-1], CRC32C of all the bytes before it
+class GraphSnapshot
+{
+    public static final int MAGIC = 0x47534E50; // "GSNP"
+    public static final int VERSION = 1;
+    static final int HEADER = 20;               // bytes in the five header ints
+    private static final int WINDOW = 1 << 28;  // bytes mapped or buffered at a time
+
+    //isSnapshot Method - returns true if the file starts with the snapshot magic number
+    public static boolean isSnapshot(String fileName) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ))
+        {
+            ByteBuffer b = ByteBuffer.allocate(4);
+            return channel.read(b, 0) == 4 && b.getInt(0) == MAGIC;
+        }
+    }
+
+    //load Method - loads a snapshot, or parses the file if it is a text graph
+    public static Graph load(String fileName) throws IOException
+    {
+        return isSnapshot(fileName) ? read(fileName) : new Graph(fileName);
+    }
+
+    //read Method - maps a snapshot back into the adjacency arrays of a graph
+    public static Graph read(String fileName) throws IOException
+    {
+        int V, E, n;
+        int[] offsets, targets, weights;
+        long pos, expected;
+        CRC32C crc = new CRC32C();
+
+        try(FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ))
+        {
+            if(channel.size() < HEADER + 8)
+                throw new IOException(fileName + " is too short to be a graph snapshot");
+            MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+            if(head.getInt(0) != MAGIC)
+                throw new IOException(fileName + " is not a graph snapshot");
+            if(head.getInt(4) != VERSION)
+                throw new IOException(fileName + " is snapshot version " + head.getInt(4) + ", expected " + VERSION);
+            V = head.getInt(8);
+            E = head.getInt(12);
+            n = head.getInt(16);
+            if(V < 0 || n < 0 || channel.size() != HEADER + 4L*(V+2) + 8L*n + 8)
+                throw new IOException(fileName + " has the wrong length for a graph snapshot");
+            crc.update(head);
+
+            offsets = new int[V+2];
+            targets = new int[n];
+            weights = new int[n];
+            pos = readInts(channel, HEADER, offsets, crc);
+            pos = readInts(channel, pos, targets, crc);
+            pos = readInts(channel, pos, weights, crc);
+
+            expected = channel.map(FileChannel.MapMode.READ_ONLY, pos, 8).getLong();
+            if(crc.getValue() != expected)
+                throw new IOException(fileName + " failed its checksum, the snapshot is corrupt");
+        }
+        return new Graph(V, E, offsets, targets, weights);
+    }//End of read Method
+
+    //readInts Method - fills a from the file starting at pos, returns the position after the last int
+    static long readInts(FileChannel channel, long pos, int[] a, CRC32C crc) throws IOException
+    {
+        int off = 0, len;
+        while(off < a.length)
+        {
+            len = Math.min(a.length - off, WINDOW / 4);
+            MappedByteBuffer b = channel.map(FileChannel.MapMode.READ_ONLY, pos, 4L*len);
+            b.asIntBuffer().get(a, off, len);
+            crc.update(b);
+            off += len;
+            pos += 4L*len;
+        }
+        return pos;
+    }//End of readInts Method
+
+    //write Method - saves the adjacency arrays of g as a snapshot
+    public static void write(Graph g, String fileName) throws IOException
+    {
+        CRC32C crc = new CRC32C();
+        ByteBuffer b = ByteBuffer.allocateDirect(1 << 20);
+
+        try(FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            b.putInt(MAGIC).putInt(VERSION).putInt(g.vertexCount()).putInt(g.edgeCount()).putInt(g.targets().length);
+            writeInts(channel, b, g.offsets(), crc);
+            writeInts(channel, b, g.targets(), crc);
+            writeInts(channel, b, g.weights(), crc);
+            flush(channel, b, crc);
+            b.putLong(crc.getValue());
+            b.flip();
+            while(b.hasRemaining())
+                channel.write(b);
+        }
+    }//End of write Method
+
+    //writeInts Method - adds the ints of a to the buffer, writing it out whenever it fills up
+    static void writeInts(FileChannel channel, ByteBuffer b, int[] a, CRC32C crc) throws IOException
+    {
+        int off = 0, len;
+        while(off < a.length)
+        {
+            if(b.remaining() < 4)
+                flush(channel, b, crc);
+            len = Math.min(a.length - off, b.remaining() / 4);
+            b.asIntBuffer().put(a, off, len);
+            b.position(b.position() + 4*len);
+            off += len;
+        }
+    }
+
+    //flush Method - writes out the buffer and adds its bytes to the checksum
+    static void flush(FileChannel channel, ByteBuffer b, CRC32C crc) throws IOException
+    {
+        b.flip();
+        crc.update(b.duplicate());
+        while(b.hasRemaining())
+            channel.write(b);
+        b.clear();
+    }
+
+    //fingerprint Method - a hash of the adjacency arrays, so files worked out from a graph are not used with a different one
+    //The offsets are hashed too, otherwise graphs with the same targets and weights split differently between vertices would match
+    static long fingerprint(Graph g)
+    {
+        long h = g.vertexCount();
+        for(int x : g.offsets())
+            h = 31*h + x;
+        for(int x : g.targets())
+            h = 31*h + x;
+        for(int x : g.weights())
+            h = 31*h + x;
+        return h;
+    }
+
+    //Converts graph text files to snapshots:  java GraphSnapshot graph.txt [graph.gsnap]
+    public static void main(String[] args) throws IOException
+    {
+        if(args.length < 1)
+        {
+            System.out.println("Usage: java GraphSnapshot <graph text file> [snapshot file]");
+            return;
+        }
+        String out = args.length > 1 ? args[1] : args[0].replaceFirst("\\.txt$", "") + ".gsnap";
+
+        long start = System.nanoTime();
+        Graph g = ParallelGraphLoader.load(args[0]);
+        long loaded = System.nanoTime();
+        write(g, out);
+        long written = System.nanoTime();
+
+        System.out.println("Read " + args[0] + " in " + (loaded - start) / 1000000 + " ms, wrote " + out + " in " + (written - loaded) / 1000000 + " ms");
+    }
+
+}//End of GraphSnapshot Class
+
+//DeltaStepping Class - parallel single source shortest paths by Meyer and Sanders' delta stepping
+//Vertices are kept in buckets of width delta by their tentative distance. The lowest bucket is emptied
+//over and over: its vertices relax their light edges (weight <= delta) in parallel, which can only put
+//vertices back into the same bucket or later ones. When it stays empty the vertices that passed through
+//it relax their heavy edges, and the search moves on to the next bucket. The distance and parent of a
+//vertex are kept together in one long, (dist << 32 | parent), so a relaxation changes both with a single
+//compare and set. dist[] comes out the same as SPT_Dijkstra and parent[] is a valid shortest path tree
+class DeltaStepping
+{
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final long UNREACHED = (long)Integer.MAX_VALUE << 32;
+    private static final int BLOCK = 256; // vertices relaxed by one task
+
+    private final Graph g;
+    private final int[] offsets, targets, weights;
+    private final int delta;
+    private final long[] state;   // state[v] = (dist << 32 | parent)
+    private final int[][] buckets; // bucket i is kept in slot i % buckets.length, see add
+    private final int[] sizes;
+    private long queued;          // entries in all the buckets
+
+    private DeltaStepping(Graph g, int delta)
+    {
+        this.g = g;
+        this.delta = delta;
+        offsets = g.offsets();
+        targets = g.targets();
+        weights = g.weights();
+        state = new long[g.vertexCount() + 1];
+        Arrays.fill(state, UNREACHED);
+        int slots = (int)Math.min(((long)g.maxWeight() + delta - 1) / delta + 1, Integer.MAX_VALUE - 8);
+        buckets = new int[slots][];
+        sizes = new int[slots];
+    }
+
+    //defaultDelta Method - the largest weight divided by the average degree, a common starting point
+    public static int defaultDelta(Graph g)
+    {
+        int V = g.vertexCount();
+        long degree = V == 0 ? 1 : Math.max(1, g.targets().length / V);
+        return (int)Math.max(1, g.maxWeight() / degree);
+    }
+
+    //shortestPaths Method - finds the shortest path tree from s using the threads of pool
+    public static SptResult shortestPaths(Graph g, int s, int delta, ForkJoinPool pool)
+    {
+        if(delta < 1)
+            throw new IllegalArgumentException("delta must be at least 1, got " + delta);
+        if(g.minWeight() < 0)
+            throw new IllegalArgumentException("delta stepping needs non negative edge weights");
+        return new DeltaStepping(g, delta).run(s, pool);
+    }
+
+    private SptResult run(int s, ForkJoinPool pool)
+    {
+        int V = g.vertexCount();
+        int[] inRound = new int[V+1];   // inRound[v] = the last round v was taken out of a bucket in
+        int[] settledIn = new int[V+1]; // settledIn[v] = bucket+1 for the last bucket v passed through
+        int[] current, settled = new int[16];
+        int i, j, n, b, round = 0, nSettled;
+
+        state[s] = 0;
+        add(0, s);
+
+        for(i = 0; queued > 0; ++i)
+        {
+            b = i % buckets.length;
+            nSettled = 0;
+            while(sizes[b] > 0)
+            {
+                //Takes the live vertices out of bucket i, each only once
+                current = buckets[b];
+                n = sizes[b];
+                buckets[b] = null;
+                sizes[b] = 0;
+                queued -= n;
+                ++round;
+                int m = 0;
+                for(j = 0; j < n; ++j)
+                {
+                    int v = current[j];
+                    if(dist(v) / delta == i && inRound[v] != round)
+                    {
+                        inRound[v] = round;
+                        current[m++] = v;
+                        if(settledIn[v] != i+1)
+                        {
+                            settledIn[v] = i+1;
+                            if(nSettled == settled.length)
+                                settled = Arrays.copyOf(settled, 2*nSettled);
+                            settled[nSettled++] = v;
+                        }
+                    }
+                }
+                relax(current, m, true, pool);
+            }
+            relax(settled, nSettled, false, pool);
+        }
+
+        int[] dist = new int[V+1], parent = new int[V+1];
+        for(int v = 1; v <= V; ++v)
+        {
+            dist[v] = dist(v);
+            parent[v] = (int)state[v];
+        }
+        return new SptResult(dist, parent);
+    }//End of run Method
+
+    private int dist(int v)
+    {
+        return (int)(state[v] >>> 32);
+    }
+
+    //relax Method - relaxes the light or heavy edges of the first n vertices of vs and buckets the vertices that improve
+    private void relax(int[] vs, int n, boolean light, ForkJoinPool pool)
+    {
+        int blocks = (n + BLOCK - 1) / BLOCK;
+        int[][] improved = new int[blocks][];
+        int[] count = new int[blocks];
+
+        if(blocks == 1)
+            relaxBlock(vs, 0, n, light, improved, count, 0);
+        else if(blocks > 1)
+            pool.submit(() -> IntStream.range(0, blocks).parallel().forEach(k ->
+                relaxBlock(vs, k * BLOCK, Math.min(n, (k+1) * BLOCK), light, improved, count, k))).join();
+
+        //Puts each improved vertex into the bucket for its distance now
+        for(int k = 0; k < blocks; ++k)
+            for(int j = 0; j < count[k]; ++j)
+            {
+                int u = improved[k][j];
+                add(dist(u) / delta, u);
+            }
+    }
+
+    //relaxBlock Method - relaxes the edges of vs[from..to-1], recording the vertices it improves in improved[k]
+    private void relaxBlock(int[] vs, int from, int to, boolean light, int[][] improved, int[] count, int k)
+    {
+        int[] buf = new int[64];
+        int n = 0;
+        for(int j = from; j < to; ++j)
+        {
+            int v = vs[j];
+            long dv = dist(v);
+            for(int i = offsets[v]; i < offsets[v+1]; ++i)
+            {
+                if((weights[i] <= delta) != light)
+                    continue;
+                int u = targets[i];
+                long nd = dv + weights[i];
+                long old, next = (nd << 32) | v;
+                while(nd < ((old = (long)LONGS.getVolatile(state, u)) >>> 32))
+                {
+                    if(LONGS.compareAndSet(state, u, old, next))
+                    {
+                        if(n == buf.length)
+                            buf = Arrays.copyOf(buf, 2*n);
+                        buf[n++] = u;
+                        break;
+                    }
+                }
+            }
+        }
+        improved[k] = buf;
+        count[k] = n;
+    }//End of relaxBlock Method
+
+    //add Method - puts v into bucket i
+    //While bucket i is being emptied a vertex can only improve to at most (i+1)*delta - 1 + maxWeight, so the
+    //buckets in use always lie in i .. i + ceil(maxWeight/delta) and that many slots can be reused in a ring
+    private void add(int i, int v)
+    {
+        int b = i % buckets.length;
+        if(buckets[b] == null)
+            buckets[b] = new int[16];
+        else if(sizes[b] == buckets[b].length)
+            buckets[b] = Arrays.copyOf(buckets[b], 2 * sizes[b]);
+        buckets[b][sizes[b]++] = v;
+        ++queued;
+    }
+
+}//End of DeltaStepping Class
+
+//DeltaSteppingBenchmark Class - times DeltaStepping against SPT_Dijkstra on one graph
+//Usage: java DeltaSteppingBenchmark <graph file or snapshot> <start vertex> [delta] [runs]
+//Reports the best time at 1, 2, 4, 8 ... threads and checks every dist[] against SPT_Dijkstra
+class DeltaSteppingBenchmark
+{
+    public static void main(String[] args) throws IOException
+    {
+        if(args.length < 2)
+        {
+            System.out.println("Usage: java DeltaSteppingBenchmark <graph file or snapshot> <start vertex> [delta] [runs]");
+            return;
+        }
+        Graph g = GraphSnapshot.load(args[0]);
+        int s = Integer.parseInt(args[1]);
+        int delta = args.length > 2 ? Integer.parseInt(args[2]) : DeltaStepping.defaultDelta(g);
+        int runs = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        int maxThreads = Math.max(8, Runtime.getRuntime().availableProcessors());
+
+        SptResult expected = null;
+        long sequential = Long.MAX_VALUE;
+        for(int r = 0; r < runs; ++r)
+        {
+            long start = System.nanoTime();
+            expected = g.SPT_Dijkstra(s);
+            sequential = Math.min(sequential, System.nanoTime() - start);
+        }
+        System.out.println("SPT_Dijkstra (" + g.shortestPathHeapType() + " queue): " + sequential / 1000 + " us");
+        System.out.println("Delta stepping with delta = " + delta);
+        System.out.println("Threads \t Time (us) \t Speedup vs SPT_Dijkstra");
+
+        for(int threads = 1; threads <= maxThreads; threads *= 2)
+        {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long best = Long.MAX_VALUE;
+            for(int r = 0; r < runs; ++r)
+            {
+                long start = System.nanoTime();
+                SptResult result = DeltaStepping.shortestPaths(g, s, delta, pool);
+                best = Math.min(best, System.nanoTime() - start);
+                if(!Arrays.equals(result.dist, expected.dist))
+                    throw new IllegalStateException("DeltaStepping gave different distances with " + threads + " threads");
+            }
+            pool.shutdown();
+            System.out.printf("%7d \t %9d \t %23.2f%n", threads, best / 1000, (double)sequential / best);
+        }
+    }
+}//End of DeltaSteppingBenchmark Class
+
+//DistanceMatrixBenchmark Class - times Graph.distanceMatrix on one graph
+//Usage: java DistanceMatrixBenchmark <graph file or snapshot> [sources] [targets] [runs]
+//Sources and targets are picked at random. Reports the best time at 1, 2, 4, 8 ... threads and checks
+//every matrix against the one worked out on a single thread
+class DistanceMatrixBenchmark
+{
+    public static void main(String[] args) throws IOException
+    {
+        if(args.length < 1)
+        {
+            System.out.println("Usage: java DistanceMatrixBenchmark <graph file or snapshot> [sources] [targets] [runs]");
+            return;
+        }
+        Graph g = GraphSnapshot.load(args[0]);
+        int sources = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int targets = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int runs = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        int maxThreads = Math.max(8, Runtime.getRuntime().availableProcessors());
+        Random random = new Random(1);
+        int[] from = new int[sources], to = new int[targets];
+
+        for(int i = 0; i < sources; ++i)
+            from[i] = 1 + random.nextInt(g.vertexCount());
+        for(int i = 0; i < targets; ++i)
+            to[i] = 1 + random.nextInt(g.vertexCount());
+
+        System.out.println(sources + " x " + targets + " distance matrix");
+        System.out.println("Threads \t Time (ms) \t Rows per second \t Speedup");
+        int[][] expected = null;
+        long single = 0;
+        for(int threads = 1; threads <= maxThreads; threads *= 2)
+        {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long best = Long.MAX_VALUE;
+            for(int r = 0; r < runs; ++r)
+            {
+                long start = System.nanoTime();
+                int[][] m = g.distanceMatrix(from, to, pool);
+                best = Math.min(best, System.nanoTime() - start);
+                if(expected == null)
+                    expected = m;
+                else if(!Arrays.deepEquals(m, expected))
+                    throw new IllegalStateException("distanceMatrix gave different distances with " + threads + " threads");
+            }
+            pool.shutdown();
+            if(threads == 1)
+                single = best;
+            System.out.printf("%7d \t %9d \t %15.0f \t %7.2f%n", threads, best / 1000000, sources * 1e9 / best, (double)single / best);
+        }
+    }
+}//End of DistanceMatrixBenchmark Class
+
+//Boruvka Class - parallel minimum spanning forest by Boruvka's algorithm
+//Every round each component finds its cheapest edge to another component, the vertices of the graph
+//being searched in parallel, and then all those edges are added at once, joining the components through
+//a union-find that threads update with compare and set. The number of components at least halves each
+//round. Edges are ordered by (weight, smaller end, larger end), so there are no ties between different
+//edges, the edges picked in a round can never close a cycle and the forest comes out the same on any
+//number of threads. Its total weight is the same as MST_Prim gives for a connected graph
+class Boruvka
+{
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final int V;
+    private final int[] offsets, targets, weights;
+    private final int[] source;     // source[i] = the vertex adjacency entry i belongs to
+    private final int[] comp;       // union-find parent of each vertex, comp[v] == v for the root of a component
+    private final int[] best;       // best[c] = cheapest entry leaving the component with root c this round, -1 if none
+    private final boolean[] inTree; // inTree[i] = entry i is an edge of the forest
+
+    private Boruvka(Graph g)
+    {
+        V = g.vertexCount();
+        offsets = g.offsets();
+        targets = g.targets();
+        weights = g.weights();
+        source = new int[targets.length];
+        comp = new int[V+1];
+        best = new int[V+1];
+        inTree = new boolean[targets.length];
+    }
+
+    //spanningForest Method - the minimum spanning forest of g worked out on the threads of pool
+    //The tree holding s is rooted at s and every other tree at its lowest vertex, so parent[] has the same
+    //shape as MST_Prim gives, with 0 for the roots
+    public static MstResult spanningForest(Graph g, int s, ForkJoinPool pool)
+    {
+        return new Boruvka(g).run(s, pool);
+    }
+
+    private MstResult run(int s, ForkJoinPool pool)
+    {
+        int v, n;
+        int[] roots = new int[V];
+
+        pool.submit(() -> IntStream.rangeClosed(1, V).parallel().forEach(u -> {
+            comp[u] = u;
+            for(int i = offsets[u]; i < offsets[u+1]; ++i)
+                source[i] = u;
+        })).join();
+
+        while(true)
+        {
+            Arrays.fill(best, -1);
+            pool.submit(() -> IntStream.rangeClosed(1, V).parallel().forEach(this::cheapestEdge)).join();
+
+            n = 0;
+            for(v = 1; v <= V; ++v)
+                if(best[v] != -1)
+                    roots[n++] = v;
+            if(n == 0) //Every component is a whole connected part of the graph
+                break;
+
+            //Two components may pick the same edge, only the first union of its ends succeeds
+            final int joining = n;
+            pool.submit(() -> IntStream.range(0, joining).parallel().forEach(k -> {
+                int i = best[roots[k]];
+                if(union(source[i], targets[i]))
+                    inTree[i] = true;
+            })).join();
+        }
+        return forest(s);
+    }//End of run Method
+
+    //cheapestEdge Method - offers v's cheapest edge to another component as the cheapest edge of its own component
+    private void cheapestEdge(int v)
+    {
+        int c = find(v), local = -1, i, cur;
+        for(i = offsets[v]; i < offsets[v+1]; ++i)
+            if(targets[i] != v && find(targets[i]) != c && (local == -1 || less(i, local)))
+                local = i;
+        if(local == -1)
+            return;
+        do
+        {
+            cur = (int)INTS.getVolatile(best, c);
+            if(cur != -1 && !less(local, cur))
+                return;
+        } while(!INTS.compareAndSet(best, c, cur, local));
+    }
+
+    //less Method - true if entry i comes before entry j in (weight, smaller end, larger end) order
+    private boolean less(int i, int j)
+    {
+        if(weights[i] != weights[j])
+            return weights[i] < weights[j];
+        int lo = Math.min(source[i], targets[i]), loJ = Math.min(source[j], targets[j]);
+        if(lo != loJ)
+            return lo < loJ;
+        return Math.max(source[i], targets[i]) < Math.max(source[j], targets[j]);
+    }
+
+    //find Method - the root of x's component, halving the path on the way up
+    private int find(int x)
+    {
+        int p, gp;
+        while((p = (int)INTS.getVolatile(comp, x)) != x)
+        {
+            gp = (int)INTS.getVolatile(comp, p);
+            if(gp != p)
+                INTS.compareAndSet(comp, x, p, gp);
+            x = gp;
+        }
+        return x;
+    }
+
+    //union Method - joins the components of a and b, false if they were already one component
+    private boolean union(int a, int b)
+    {
+        int ra, rb;
+        while(true)
+        {
+            ra = find(a);
+            rb = find(b);
+            if(ra == rb)
+                return false;
+            if(ra > rb) //Links the lower root under the higher one
+            {
+                int x = ra;
+                ra = rb;
+                rb = x;
+            }
+            if(INTS.compareAndSet(comp, ra, ra, rb))
+                return true;
+        }
+    }
+
+    //forest Method - the chosen edges as a parent array rooted at s
+    private MstResult forest(int s)
+    {
+        EdgeList tree = new EdgeList(V);
+        for(int i = 0; i < inTree.length; ++i)
+            if(inTree[i])
+                tree.add(source[i], targets[i], weights[i]);
+        return MstResult.fromEdges(V, s, tree);
+    }
+
+}//End of Boruvka Class
+
+//Kruskal Class - minimum spanning forest by Kruskal's algorithm on a flat array of edges
+//Each edge u--v is taken once from the adjacency lists (u < v, self loops left out) and given the key
+//(weight << 32 | index). The adjacency lists are sorted by vertex, so keys order edges by (weight, smaller end,
+//larger end) as Boruvka does, and the two give the same forest. The edges are added lightest first,
+//skipping any whose ends a union-find with path compression and union by rank shows are already joined.
+//Filter-Kruskal (Osipov, Sanders and Singler) partitions the keys round a pivot like quicksort instead of
+//sorting them all: the light part is done first, then the heavy edges already inside one tree are thrown
+//away before the rest is partitioned again, so most heavy edges are never sorted. Parts small enough are
+//sorted with Arrays.parallelSort
+class Kruskal
+{
+    private static final int SORT_SIZE = 1 << 17; // parts this small are sorted rather than partitioned, big enough for parallelSort to split
+
+    private final int V, m;
+    private final int[] u, v, w;    // the edges, u[k]--(w[k])--v[k] for k < m
+    private final int[] comp;       // union-find parent, comp[x] == x for a root
+    private final byte[] rank;      // upper bound on the height of a root's tree
+    private final EdgeList tree;
+    private final Random random = new Random(1);
+
+    private Kruskal(int V, EdgeList edges)
+    {
+        this.V = V;
+        m = edges.size;
+        u = edges.u;
+        v = edges.v;
+        w = edges.w;
+        comp = new int[V+1];
+        for(int x = 1; x <= V; ++x)
+            comp[x] = x;
+        rank = new byte[V+1];
+        tree = new EdgeList(V);
+    }
+
+    //edges Method - each edge of g once, as the adjacency entry from its smaller end
+    private static EdgeList edges(Graph g)
+    {
+        int x, i, m = 0, V = g.vertexCount();
+        int[] offsets = g.offsets(), targets = g.targets(), weights = g.weights();
+
+        for(x = 1; x <= V; ++x)
+            for(i = offsets[x]; i < offsets[x+1]; ++i)
+                if(x < targets[i])
+                    ++m;
+        EdgeList edges = new EdgeList(m);
+        for(x = 1; x <= V; ++x)
+            for(i = offsets[x]; i < offsets[x+1]; ++i)
+                if(x < targets[i])
+                    edges.add(x, targets[i], weights[i]);
+        return edges;
+    }
+
+    //spanningForest Method - the minimum spanning forest of g with Filter-Kruskal, rooted as MstResult.fromEdges describes
+    public static MstResult spanningForest(Graph g, int s)
+    {
+        return spanningForest(g, s, true);
+    }
+
+    //spanningForest Method - if filter is false every edge is sorted up front, plain Kruskal
+    public static MstResult spanningForest(Graph g, int s, boolean filter)
+    {
+        Kruskal k = new Kruskal(g.vertexCount(), edges(g));
+        long[] keys = k.keys();
+        if(filter)
+            k.filterKruskal(keys, 0, keys.length);
+        else
+        {
+            Arrays.parallelSort(keys);
+            k.add(keys, 0, keys.length);
+        }
+        return MstResult.fromEdges(k.V, s, k.tree);
+    }
+
+    //minimumForest Method - the edges of a minimum spanning forest of vertices 1..V with the given edges, by Filter-Kruskal
+    static EdgeList minimumForest(int V, EdgeList edges)
+    {
+        Kruskal k = new Kruskal(V, edges);
+        long[] keys = k.keys();
+        k.filterKruskal(keys, 0, keys.length);
+        return k.tree;
+    }
+
+    private long[] keys()
+    {
+        long[] keys = new long[m];
+        for(int k = 0; k < keys.length; ++k)
+            keys[k] = ((long)w[k] << 32) | k;
+        return keys;
+    }
+
+    //filterKruskal Method - adds the forest edges among keys[lo..hi-1]
+    private void filterKruskal(long[] keys, int lo, int hi)
+    {
+        if(done())
+            return;
+        if(hi - lo <= SORT_SIZE)
+        {
+            Arrays.parallelSort(keys, lo, hi);
+            add(keys, lo, hi);
+            return;
+        }
+        int mid = partition(keys, lo, hi);
+        if(mid == hi) //Nothing heavier than the pivot, sort the lot
+        {
+            Arrays.parallelSort(keys, lo, hi);
+            add(keys, lo, hi);
+            return;
+        }
+        filterKruskal(keys, lo, mid);
+        filterKruskal(keys, mid, filter(keys, mid, hi));
+    }//End of filterKruskal Method
+
+    //partition Method - puts the keys of keys[lo..hi-1] no greater than a pivot first and returns where the rest start
+    //The pivot is the middle of three keys picked at random. Both sides are picked out by parallel streams,
+    //which keep the keys in order, and copied back
+    private int partition(long[] keys, int lo, int hi)
+    {
+        long a = keys[lo + random.nextInt(hi - lo)], b = keys[lo + random.nextInt(hi - lo)], c = keys[lo + random.nextInt(hi - lo)];
+        long pivot = Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+        long[] low = Arrays.stream(keys, lo, hi).parallel().filter(x -> x <= pivot).toArray();
+        long[] high = Arrays.stream(keys, lo, hi).parallel().filter(x -> x > pivot).toArray();
+        System.arraycopy(low, 0, keys, lo, low.length);
+        System.arraycopy(high, 0, keys, lo + low.length, high.length);
+        return lo + low.length;
+    }
+
+    //filter Method - moves the keys of keys[lo..hi-1] whose ends are in different trees to the front, returns their end
+    //No trees are joined while it runs, so the threads only read the union-find through root
+    private int filter(long[] keys, int lo, int hi)
+    {
+        long[] kept = Arrays.stream(keys, lo, hi).parallel().filter(x -> root(u[(int)x]) != root(v[(int)x])).toArray();
+        System.arraycopy(kept, 0, keys, lo, kept.length);
+        return lo + kept.length;
+    }
+
+    //add Method - runs Kruskal's algorithm over sorted keys
+    private void add(long[] keys, int lo, int hi)
+    {
+        for(int i = lo; i < hi && !done(); ++i)
+        {
+            int k = (int)keys[i];
+            if(union(u[k], v[k]))
+                tree.add(u[k], v[k], w[k]);
+        }
+    }
+
+    //done Method - a spanning forest of V vertices has at most V-1 edges
+    private boolean done()
+    {
+        return tree.size >= V - 1;
+    }
+
+    //find Method - the root of x's tree, pointing every vertex on the way straight at it
+    private int find(int x)
+    {
+        int root = x, next;
+        while(comp[root] != root)
+            root = comp[root];
+        while(comp[x] != root)
+        {
+            next = comp[x];
+            comp[x] = root;
+            x = next;
+        }
+        return root;
+    }
+
+    //root Method - the root of x's tree without changing the union-find, safe to call from several threads at once
+    private int root(int x)
+    {
+        while(comp[x] != x)
+            x = comp[x];
+        return x;
+    }
+
+    //union Method - joins the trees of a and b, the lower ranked root under the other, false if they were one tree already
+    private boolean union(int a, int b)
+    {
+        int ra = find(a), rb = find(b);
+        if(ra == rb)
+            return false;
+        if(rank[ra] < rank[rb])
+            comp[ra] = rb;
+        else if(rank[ra] > rank[rb])
+            comp[rb] = ra;
+        else
+        {
+            comp[rb] = ra;
+            ++rank[ra];
+        }
+        return true;
+    }
+
+}//End of Kruskal Class
+
+//StreamingMst Class - minimum spanning forest of a graph file too big to load, in O(V + batch) memory
+//The edges are read from the text file or snapshot a batch at a time and never put into adjacency lists.
+//Only the forest so far and the edges read since are held. When the buffer fills, Kruskal's algorithm
+//is run over it and everything that is not in the new forest is dropped. An edge left out is the
+//heaviest on some cycle of edges seen so far, so by the cycle property it is in no minimum spanning
+//forest of the whole graph, and the forest left at the end is a minimum spanning forest of the file
+class StreamingMst
+{
+    public static final int DEFAULT_BATCH = 1 << 20; // edges read between runs of Kruskal's algorithm
+    private static final int CHUNK = 1 << 16;        // ints read from a snapshot at a time
+
+    private final int V, capacity;
+    private EdgeList buffer;    // the forest so far followed by the edges read since
+
+    private StreamingMst(int V, int batch)
+    {
+        this.V = V;
+        capacity = V + batch;
+        buffer = new EdgeList(capacity);
+    }
+
+    public static MstResult spanningForest(String fileName, int s) throws IOException
+    {
+        return spanningForest(fileName, s, DEFAULT_BATCH);
+    }
+
+    //spanningForest Method - reads the edges of fileName, a graph text file or snapshot, batch edges at a time
+    public static MstResult spanningForest(String fileName, int s, int batch) throws IOException
+    {
+        if(batch < 1)
+            throw new IllegalArgumentException("batch must be at least 1, got " + batch);
+        StreamingMst m = GraphSnapshot.isSnapshot(fileName) ? readSnapshot(fileName, batch) : readText(fileName, batch);
+        m.reduce();
+        return MstResult.fromEdges(m.V, s, m.buffer);
+    }
+
+    private static StreamingMst readText(String fileName, int batch) throws IOException
+    {
+        try(EdgeFileReader reader = new EdgeFileReader(fileName))
+        {
+            int V = reader.nextInt(), E = reader.nextInt();
+            StreamingMst m = new StreamingMst(V, batch);
+            for(int e = 0; e < E; ++e)
+                m.add(reader.nextInt(), reader.nextInt(), reader.nextInt());
+            return m;
+        }
+    }
+
+    //readSnapshot Method - walks the targets and weights sections of a snapshot side by side, taking each
+    //edge from the adjacency entry of its smaller end. Only offsets[] is read whole. The checksum is not
+    //checked, as that would mean reading the file in order
+    private static StreamingMst readSnapshot(String fileName, int batch) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ))
+        {
+            ByteBuffer head = ByteBuffer.allocate(GraphSnapshot.HEADER);
+            channel.read(head, 0);
+            if(head.getInt(0) != GraphSnapshot.MAGIC || head.getInt(4) != GraphSnapshot.VERSION)
+                throw new IOException(fileName + " is not a version " + GraphSnapshot.VERSION + " graph snapshot");
+            int V = head.getInt(8), n = head.getInt(16), x = 1, i, j, len;
+            if(V < 0 || n < 0 || channel.size() != GraphSnapshot.HEADER + 4L*(V+2) + 8L*n + 8)
+                throw new IOException(fileName + " has the wrong length for a graph snapshot");
+
+            int[] offsets = new int[V+2], targets = new int[CHUNK], weights = new int[CHUNK];
+            long tPos = GraphSnapshot.readInts(channel, GraphSnapshot.HEADER, offsets, new CRC32C());
+            long wPos = tPos + 4L*n;
+            ByteBuffer b = ByteBuffer.allocate(4*CHUNK);
+            StreamingMst m = new StreamingMst(V, batch);
+
+            for(i = 0; i < n; i += len)
+            {
+                len = Math.min(CHUNK, n - i);
+                readInts(channel, tPos + 4L*i, b, targets, len);
+                readInts(channel, wPos + 4L*i, b, weights, len);
+                for(j = 0; j < len; ++j)
+                {
+                    while(offsets[x+1] <= i + j) //Entry i+j is past the list of x
+                        ++x;
+                    if(x < targets[j])
+                        m.add(x, targets[j], weights[j]);
+                }
+            }
+            return m;
+        }
+    }//End of readSnapshot Method
+
+    //readInts Method - reads len ints at pos into a through the buffer b
+    private static void readInts(FileChannel channel, long pos, ByteBuffer b, int[] a, int len) throws IOException
+    {
+        b.clear().limit(4*len);
+        while(b.hasRemaining())
+            if(channel.read(b, pos + b.position()) < 0)
+                throw new EOFException("Snapshot ended early");
+        b.flip();
+        b.asIntBuffer().get(a, 0, len);
+    }
+
+    //add Method - adds an edge to the buffer, cutting the buffer back to a forest when it is full
+    private void add(int x, int y, int wgt)
+    {
+        if(x == y)
+            return;
+        if(buffer.size == capacity)
+            reduce();
+        buffer.add(x, y, wgt);
+    }
+
+    //reduce Method - replaces the buffer with a minimum spanning forest of its edges
+    private void reduce()
+    {
+        EdgeList forest = Kruskal.minimumForest(V, buffer);
+        System.arraycopy(forest.u, 0, buffer.u, 0, forest.size);
+        System.arraycopy(forest.v, 0, buffer.v, 0, forest.size);
+        System.arraycopy(forest.w, 0, buffer.w, 0, forest.size);
+        buffer.size = forest.size;
+    }
+
+    //Prints the weight of the minimum spanning forest of a file:  java StreamingMst graph.txt [batch]
+    public static void main(String[] args) throws IOException
+    {
+        if(args.length < 1)
+        {
+            System.out.println("Usage: java StreamingMst <graph text file or snapshot> [batch]");
+            return;
+        }
+        int batch = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_BATCH;
+        long start = System.nanoTime();
+        MstResult mst = spanningForest(args[0], 1, batch);
+        System.out.println("Minimum spanning forest weight " + mst.weight + " in " + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+
+}//End of StreamingMst Class
+
+//MstBenchmark Class - times the minimum spanning tree engines against MST_Prim on one graph
+//Usage: java MstBenchmark <graph file or snapshot> [start vertex] [runs]
+//Reports the best times of Kruskal and Filter-Kruskal, and of Boruvka at 1, 2, 4, 8 ... threads, and checks
+//their weights against MST_Prim when the graph is connected
+class MstBenchmark
+{
+    public static void main(String[] args) throws IOException
+    {
+        if(args.length < 1)
+        {
+            System.out.println("Usage: java MstBenchmark <graph file or snapshot> [start vertex] [runs]");
+            return;
+        }
+        Graph g = GraphSnapshot.load(args[0]);
+        int s = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int maxThreads = Math.max(8, Runtime.getRuntime().availableProcessors());
+
+        MstResult prim = null;
+        long sequential = Long.MAX_VALUE;
+        for(int r = 0; r < runs; ++r)
+        {
+            long start = System.nanoTime();
+            prim = g.MST_Prim(s);
+            sequential = Math.min(sequential, System.nanoTime() - start);
+        }
+        int roots = 0;
+        for(int v = 1; v <= g.vertexCount(); ++v)
+            if(prim.parent[v] == 0)
+                ++roots;
+        boolean connected = roots == 1;
+        System.out.println("MST_Prim: " + sequential / 1000 + " us" + (connected ? ", weight " + prim.weight : ", graph is not connected"));
+
+        for(int filter = 0; filter < 2; ++filter)
+        {
+            String name = filter == 1 ? "Filter-Kruskal" : "Kruskal";
+            long best = Long.MAX_VALUE;
+            for(int r = 0; r < runs; ++r)
+            {
+                long start = System.nanoTime();
+                MstResult result = Kruskal.spanningForest(g, s, filter == 1);
+                best = Math.min(best, System.nanoTime() - start);
+                if(connected && result.weight != prim.weight)
+                    throw new IllegalStateException(name + " gave weight " + result.weight + ", MST_Prim gave " + prim.weight);
+            }
+            System.out.printf("%s: %d us, speedup vs MST_Prim %.2f%n", name, best / 1000, (double)sequential / best);
+        }
+        System.out.println("Boruvka");
+        System.out.println("Threads \t Time (us) \t Speedup vs MST_Prim");
+
+        for(int threads = 1; threads <= maxThreads; threads *= 2)
+        {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long best = Long.MAX_VALUE;
+            for(int r = 0; r < runs; ++r)
+            {
+                long start = System.nanoTime();
+                MstResult result = Boruvka.spanningForest(g, s, pool);
+                best = Math.min(best, System.nanoTime() - start);
+                if(connected && result.weight != prim.weight)
+                    throw new IllegalStateException("Boruvka gave weight " + result.weight + " with " + threads + " threads, MST_Prim gave " + prim.weight);
+            }
+            pool.shutdown();
+            System.out.printf("%7d \t %9d \t %19.2f%n", threads, best / 1000, (double)sequential / best);
+        }
+    }
+}//End of MstBenchmark Class
+
+//AltIndex Class - A* search with landmarks and the triangle inequality (ALT, Goldberg and Harrelson)
+//A few landmark vertices are picked spread out over the graph and the distance from each landmark to every
+//vertex is stored. For any landmark L, |d(L,t) - d(L,v)| <= d(v,t), so the largest of these over the landmarks
+//is a lower bound on the distance left from v to t. A* adds it to the key of v, which steers the search
+//towards t, and because the bound is consistent a vertex is final when it is settled, as in Dijkstra.
+//The tables can be saved next to the graph file so they are only worked out once
+class AltIndex
+{
+    public static final int MAGIC = 0x47414C54; // "GALT"
+    public static final int VERSION = 1;
+    private static final int HEADER = 28;       // magic, version, V, k, n and the graph fingerprint
+
+    private final Graph g;
+    private final int k;            // number of landmarks
+    private final int[] landmarks;
+    private final int[] table;      // table[v*k + i] = distance from landmarks[i] to v, Integer.MAX_VALUE if unreachable
+    private final ConcurrentLinkedQueue<SearchScratch> scratch = new ConcurrentLinkedQueue<>(); // scratch of finished queries
+
+    private AltIndex(Graph g, int[] landmarks, int[] table)
+    {
+        this.g = g;
+        this.k = landmarks.length;
+        this.landmarks = landmarks;
+        this.table = table;
+    }
+
+    //build Method - picks k landmarks by farthest point selection and works out their distance tables with SPT_Dijkstra
+    //The first landmark is the vertex farthest from vertex 1, and each next one is the vertex whose nearest
+    //landmark is farthest away. Vertices no landmark can reach count as farthest of all, so every component gets one
+    public static AltIndex build(Graph g, int k)
+    {
+        int V = g.vertexCount(), i, v, far;
+        int[] landmarks = new int[k], table = new int[(V+1) * k];
+        int[] nearest = new int[V+1];   // distance from v to its nearest landmark so far
+
+        Arrays.fill(nearest, Integer.MAX_VALUE);
+        far = farthest(g.SPT_Dijkstra(1).dist, null);
+        for(i = 0; i < k; ++i)
+        {
+            landmarks[i] = far;
+            int[] dist = g.SPT_Dijkstra(far).dist;
+            for(v = 1; v <= V; ++v)
+            {
+                table[v*k + i] = dist[v];
+                nearest[v] = Math.min(nearest[v], dist[v]);
+            }
+            far = farthest(nearest, landmarks);
+        }
+        return new AltIndex(g, landmarks, table);
+    }//End of build Method
+
+    //farthest Method - the vertex with the largest dist[] entry that is not already a landmark
+    private static int farthest(int[] dist, int[] taken)
+    {
+        int best = 1;
+        long bestDist = -1;
+        for(int v = 1; v < dist.length; ++v)
+        {
+            if(dist[v] > bestDist && (taken == null || !contains(taken, v)))
+            {
+                best = v;
+                bestDist = dist[v];
+            }
+        }
+        return best;
+    }
+
+    private static boolean contains(int[] a, int x)
+    {
+        for(int y : a)
+            if(y == x)
+                return true;
+        return false;
+    }
+
+    //loadOrBuild Method - loads the tables saved for graphFile, or builds and saves them if there are none
+    //or they were made for a different graph or number of landmarks. The tables live in graphFile + ".alt"
+    public static AltIndex loadOrBuild(Graph g, String graphFile, int k) throws IOException
+    {
+        String file = graphFile + ".alt";
+        if(Files.exists(Paths.get(file)))
+        {
+            try
+            {
+                AltIndex index = load(g, file);
+                if(index.k == k)
+                    return index;
+            }
+            catch(IOException ex)
+            {
+                //Out of date or damaged, made again below
+            }
+        }
+        AltIndex index = build(g, k);
+        index.save(file);
+        return index;
+    }//End of loadOrBuild Method
+
+    //save Method - writes the landmarks and tables with a checksum, tagged with a fingerprint of the graph
+    public void save(String fileName) throws IOException
+    {
+        CRC32C crc = new CRC32C();
+        ByteBuffer b = ByteBuffer.allocateDirect(1 << 20);
+
+        try(FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            b.putInt(MAGIC).putInt(VERSION).putInt(g.vertexCount()).putInt(k).putInt(g.targets().length).putLong(GraphSnapshot.fingerprint(g));
+            GraphSnapshot.writeInts(channel, b, landmarks, crc);
+            GraphSnapshot.writeInts(channel, b, table, crc);
+            GraphSnapshot.flush(channel, b, crc);
+            b.putLong(crc.getValue());
+            b.flip();
+            while(b.hasRemaining())
+                channel.write(b);
+        }
+    }//End of save Method
+
+    //load Method - reads tables saved by save, checking they belong to g
+    public static AltIndex load(Graph g, String fileName) throws IOException
+    {
+        int V = g.vertexCount(), k;
+        long pos;
+        CRC32C crc = new CRC32C();
+
+        try(FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ))
+        {
+            if(channel.size() < HEADER + 8)
+                throw new IOException(fileName + " is too short to be a landmark file");
+            MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+            if(head.getInt(0) != MAGIC || head.getInt(4) != VERSION)
+                throw new IOException(fileName + " is not a version " + VERSION + " landmark file");
+            k = head.getInt(12);
+            if(head.getInt(8) != V || head.getInt(16) != g.targets().length || head.getLong(20) != GraphSnapshot.fingerprint(g))
+                throw new IOException(fileName + " was made for a different graph");
+            if(k < 1 || channel.size() != HEADER + 4L*k + 4L*(V+1)*k + 8)
+                throw new IOException(fileName + " has the wrong length for a landmark file");
+            crc.update(head);
+
+            int[] landmarks = new int[k], table = new int[(V+1) * k];
+            pos = GraphSnapshot.readInts(channel, HEADER, landmarks, crc);
+            pos = GraphSnapshot.readInts(channel, pos, table, crc);
+            if(crc.getValue() != channel.map(FileChannel.MapMode.READ_ONLY, pos, 8).getLong())
+                throw new IOException(fileName + " failed its checksum, the landmark file is corrupt");
+            return new AltIndex(g, landmarks, table);
+        }
+    }//End of load Method
+
+    public int[] landmarks()
+    {
+        return landmarks.clone();
+    }
+
+    //shortestPath Method - A* from s to t using the landmark lower bounds
+    //Vertices are queued by distance + lower bound on the distance left. Each query takes scratch arrays that
+    //reset in constant time from a pool, so its cost depends on the vertices it reaches and queries can run
+    //on several threads at once
+    public PathResult shortestPath(int s, int t)
+    {
+        int v, u, i, h, d, settled = 0;
+        int[] offsets = g.offsets(), targets = g.targets(), weights = g.weights();
+        int[] toT = new int[k];         // distance from each landmark to t
+        PathResult r = null;
+
+        if(s == t)
+            return new PathResult(0, new int[] {s}, 0);
+        System.arraycopy(table, t*k, toT, 0, k);
+        h = bound(s, toT);
+        if(h == Integer.MAX_VALUE) //No landmark sees s and t in the same component
+            return new PathResult(Integer.MAX_VALUE, new int[0], 0);
+
+        SearchScratch search = scratch.poll();
+        if(search == null)
+            search = new SearchScratch(g.vertexCount());
+        search.reset();
+        search.reach(s, 0, 0, -1, h);
+        while((v = search.next()) != -1)
+        {
+            ++settled;
+            if(v == t)
+            {
+                int n = 1;
+                for(u = t; u != s; u = search.parent(u))
+                    ++n;
+                int[] path = new int[n];
+                for(u = t; n > 0; u = search.parent(u))
+                    path[--n] = u;
+                r = new PathResult(search.dist(t), path, settled);
+                break;
+            }
+            for(i = offsets[v]; i < offsets[v+1]; ++i)
+            {
+                u = targets[i];
+                d = search.dist(v) + weights[i];
+                if(search.settled(u) || d >= search.dist(u))
+                    continue;
+                h = bound(u, toT);
+                if(h == Integer.MAX_VALUE) //t cannot be reached from u
+                    continue;
+                search.reach(u, d, v, i, d + h);
+            }
+        }
+        scratch.offer(search);
+        return r != null ? r : new PathResult(Integer.MAX_VALUE, new int[0], settled);
+    }//End of shortestPath Method
+
+    //bound Method - lower bound on the distance from v to t, Integer.MAX_VALUE if some landmark shows they are not connected
+    private int bound(int v, int[] toT)
+    {
+        int best = 0, a, b, i;
+        for(i = 0; i < k; ++i)
+        {
+            a = table[v*k + i];
+            b = toT[i];
+            if(a == Integer.MAX_VALUE || b == Integer.MAX_VALUE)
+            {
+                if(a != b)
+                    return Integer.MAX_VALUE;
+                continue;
+            }
+            best = Math.max(best, Math.abs(a - b));
+        }
+        return best;
+    }
+
+}//End of AltIndex Class
+
+//ContractionHierarchy Class - shortest path queries by Geisberger et al.'s contraction hierarchies
+//Vertices are contracted one at a time, least important first. Contracting v takes it out of the graph,
+//and for each pair of its neighbours u, x whose shortest path went through v a shortcut u--x is added,
+//unless a small witness search finds another path that is no longer. The order is the vertex's rank.
+//Every shortest path then has a version that goes up in rank and then down, so a query searches up from
+//s and up from t and they meet at the top. Only edges going up in rank are kept, each one with the
+//vertex it shortcuts (-1 for an original edge) so paths can be unpacked. The graph is undirected, so
+//the downward graph is the upward graph read backwards and the backward search uses the same arrays.
+//Graphs with many long edges end up with a dense core where each contraction adds shortcuts between
+//hundreds of neighbours, so contraction stops once the vertices left have become much denser than the
+//graph. Those core vertices keep all their edges in both directions and the searches cross the core as
+//plain bidirectional Dijkstra
+class ContractionHierarchy
+{
+    public static final int MAGIC = 0x47434848; // "GCHH"
+    public static final int VERSION = 1;
+    private static final int HEADER = 28;       // magic, version, V, n, the graph fingerprint and the number of upward edges
+    private static final int WITNESS_LIMIT = 1000; // vertices a witness search may settle before it gives up
+    private static final int HOP_LIMIT = 5;        // edges a witness path may have
+    private static final int ESTIMATE_LIMIT = 50;  // the same two limits for the cheaper searches that only work out priorities
+    private static final int ESTIMATE_HOPS = 2;
+    private static final int CORE_GROWTH = 3;      // contraction stops once the average degree left is this many times the graph's
+
+    private final Graph g;
+    private final int V;
+    private final int[] rank;       // rank[v] = when v was contracted, higher is more important
+    private final int[] upOffsets;  // edges from v to higher ranked vertices are up*[upOffsets[v]..upOffsets[v+1]-1], sorted by target
+    private final int[] upTargets;
+    private final int[] upWeights;
+    private final int[] upMiddle;   // vertex the edge is a shortcut through, -1 for an edge of the graph
+    private final ConcurrentLinkedQueue<SearchScratch[]> scratch = new ConcurrentLinkedQueue<>(); // (forward, backward) pairs of finished queries
+
+    private ContractionHierarchy(Graph g, int[] rank, int[] upOffsets, int[] upTargets, int[] upWeights, int[] upMiddle)
+    {
+        this.g = g;
+        this.V = g.vertexCount();
+        this.rank = rank;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.upMiddle = upMiddle;
+    }
+
+    //build Method - contracts every vertex of g and keeps the upward edges
+    //Vertices wait in a heap by edge difference (shortcuts added less edges taken away) plus the number of
+    //neighbours already contracted, which spreads contraction evenly over the graph. Priorities are updated
+    //lazily: the vertex at the top is worked out again and only contracted if it is still the smallest.
+    //Priorities come from witness searches with tight limits, which may miss witnesses and overcount the
+    //shortcuts, and only the vertex actually contracted gets the full searches that decide its shortcuts.
+    //A contracted vertex is taken out of its neighbours' lists, so the lists only ever hold vertices still
+    //to be contracted and stay short on graphs that are not near planar
+    public static ContractionHierarchy build(Graph g)
+    {
+        int V = g.vertexCount(), v, i, j, n, next = 0;
+        long live = 0, start;   // total length of the lists of vertices not contracted, and that at the start
+        int[] offsets = g.offsets(), targets = g.targets(), weights = g.weights();
+        int[][] nbr = new int[V+1][], wgt = new int[V+1][], mid = new int[V+1][];
+        int[] deg = new int[V+1], rank = new int[V+1], deleted = new int[V+1], level = new int[V+1], prio = new int[V+1];   // deg[v] = length of v's list
+        boolean[] contracted = new boolean[V+1];
+        SearchScratch witness = new SearchScratch(V);
+        int[] target = new int[V+1];    // target[x] == stamp[0] while x is a neighbour of the vertex being looked at
+        int[] pos = new int[V+1];       // and then pos[x] is its place in that vertex's list
+        int[] stamp = new int[1];
+        EdgeList shortcuts = new EdgeList(16);
+        LongHeap order = new LongHeap();
+
+        //Copies the adjacency lists, keeping the lightest of repeated edges and leaving out self loops.
+        //Each list is sorted by target, so repeats are next to each other
+        for(v = 1; v <= V; ++v)
+        {
+            n = offsets[v+1] - offsets[v];
+            nbr[v] = new int[Math.max(n, 1)];
+            wgt[v] = new int[Math.max(n, 1)];
+            mid[v] = new int[Math.max(n, 1)];
+            for(i = offsets[v]; i < offsets[v+1]; ++i)
+            {
+                if(targets[i] == v)
+                    continue;
+                if(deg[v] > 0 && nbr[v][deg[v]-1] == targets[i])
+                    wgt[v][deg[v]-1] = Math.min(wgt[v][deg[v]-1], weights[i]);
+                else
+                {
+                    nbr[v][deg[v]] = targets[i];
+                    wgt[v][deg[v]] = weights[i];
+                    mid[v][deg[v]] = -1;
+                    ++deg[v];
+                }
+            }
+        }
+
+        for(v = 1; v <= V; ++v)
+        {
+            prio[v] = priority(v, nbr, wgt, deg, deleted, level, witness, target, pos, stamp, shortcuts, ESTIMATE_LIMIT, ESTIMATE_HOPS);
+            order.push(key(prio[v], v));
+            live += deg[v];
+        }
+        start = live;
+
+        //Stops at the core, when live / (V - next) > CORE_GROWTH * start / V
+        while(!order.isEmpty() && live * V <= CORE_GROWTH * start * (V - next))
+        {
+            long e = order.pop();
+            v = (int)e;
+            if(contracted[v] || e != key(prio[v], v)) //Left behind when v's priority changed
+                continue;
+            prio[v] = priority(v, nbr, wgt, deg, deleted, level, witness, target, pos, stamp, shortcuts, ESTIMATE_LIMIT, ESTIMATE_HOPS);
+            if(!order.isEmpty() && key(prio[v], v) > order.peek())
+            {
+                order.push(key(prio[v], v));
+                continue;
+            }
+
+            //Works out the shortcuts v needs with the full witness searches
+            priority(v, nbr, wgt, deg, deleted, level, witness, target, pos, stamp, shortcuts, WITNESS_LIMIT, HOP_LIMIT);
+            for(j = 0; j < shortcuts.size; ++j)
+            {
+                live += addEdge(shortcuts.u[j], shortcuts.v[j], shortcuts.w[j], v, nbr, wgt, mid, deg);
+                live += addEdge(shortcuts.v[j], shortcuts.u[j], shortcuts.w[j], v, nbr, wgt, mid, deg);
+            }
+            contracted[v] = true;
+            rank[v] = next++;
+            live -= 2 * deg[v];
+            for(i = 0; i < deg[v]; ++i)
+            {
+                ++deleted[nbr[v][i]];
+                level[nbr[v][i]] = Math.max(level[nbr[v][i]], level[v] + 1);
+                removeEdge(nbr[v][i], v, nbr, wgt, mid, deg);
+            }
+        }
+        //The core is ranked above everything contracted
+        for(v = 1; v <= V; ++v)
+            if(!contracted[v])
+                rank[v] = next++;
+
+        //v's list was last changed when v was contracted and only held vertices contracted after it,
+        //so the whole list is v's upward edges. A core vertex's list holds its edges to the rest of the core
+        int[] upOffsets = new int[V+2];
+        for(v = 1; v <= V; ++v)
+            upOffsets[v+1] = upOffsets[v] + deg[v];
+        int m = upOffsets[V+1];
+        int[] upTargets = new int[m], upWeights = new int[m], upMiddle = new int[m];
+        long[] row = new long[16];
+        for(v = 1; v <= V; ++v)
+        {
+            n = 0;
+            if(row.length < deg[v])
+                row = new long[deg[v]];
+            for(i = 0; i < deg[v]; ++i)
+                row[n++] = ((long)nbr[v][i] << 32) | i;
+            Arrays.sort(row, 0, n);
+            for(j = 0; j < n; ++j)
+            {
+                i = (int)row[j];
+                upTargets[upOffsets[v] + j] = nbr[v][i];
+                upWeights[upOffsets[v] + j] = wgt[v][i];
+                upMiddle[upOffsets[v] + j] = mid[v][i];
+            }
+        }
+        return new ContractionHierarchy(g, rank, upOffsets, upTargets, upWeights, upMiddle);
+    }//End of build Method
+
+    //key Method - heap entry for vertex v with priority p, which may be negative
+    private static long key(int p, int v)
+    {
+        return ((long)(p + (1 << 30)) << 32) | v;
+    }
+
+    //priority Method - works out the shortcuts contracting v would need, leaving them in shortcuts, and
+    //returns v's priority. For each neighbour u a witness search runs from u without going through v,
+    //and u--x is needed if it finds nothing as short as u--v--x. The searches stop after settling
+    //maxSettled vertices and do not go more than maxHops edges from u
+    private static int priority(int v, int[][] nbr, int[][] wgt, int[] deg, int[] deleted, int[] level,
+            SearchScratch witness, int[] target, int[] pos, int[] stamp, EdgeList shortcuts, int maxSettled, int maxHops)
+    {
+        int i, j, u, x;
+        int[] maxAfter = new int[deg[v]+1]; // maxAfter[i] = heaviest edge of v after place i-1 in its list
+
+        shortcuts.size = 0;
+        if(++stamp[0] == 0) //Stamps have wrapped round, clear them once
+        {
+            Arrays.fill(target, 0);
+            stamp[0] = 1;
+        }
+        for(i = deg[v] - 1; i >= 0; --i)
+        {
+            maxAfter[i] = Math.max(maxAfter[i+1], wgt[v][i]);
+            target[nbr[v][i]] = stamp[0];
+            pos[nbr[v][i]] = i;
+        }
+        //Only the pairs u--x with x after u in v's list are checked, so the search from u only has to reach those
+        for(i = 0; i + 1 < deg[v]; ++i)
+        {
+            u = nbr[v][i];
+            witnessSearch(u, v, i, wgt[v][i] + maxAfter[i+1], deg[v] - 1 - i, nbr, wgt, deg, witness, target, pos, stamp[0],
+                maxSettled, maxHops);
+            //Each pair once, u before x in v's list
+            for(j = i + 1; j < deg[v]; ++j)
+            {
+                x = nbr[v][j];
+                if(witness.dist(x) > wgt[v][i] + wgt[v][j])
+                    shortcuts.add(u, x, wgt[v][i] + wgt[v][j]);
+            }
+        }
+        return 2*(shortcuts.size - deg[v]) + deleted[v] + level[v];
+    }//End of priority Method
+
+    //witnessSearch Method - Dijkstra from u over the vertices not yet contracted, leaving out v, stopping at
+    //distance limit, once the targets neighbours of v after place from in its list are settled or after
+    //maxSettled vertices are settled, and not going on from vertices maxHops edges from u. A witness it
+    //misses only costs an extra shortcut. The edge slot of the scratch holds the number of edges from u
+    private static void witnessSearch(int u, int v, int from, int limit, int targets, int[][] nbr, int[][] wgt, int[] deg,
+            SearchScratch witness, int[] target, int[] pos, int stamp, int maxSettled, int maxHops)
+    {
+        int settled = 0, y, z, d, i, hops;
+        long e;
+
+        witness.reset();
+        witness.reach(u, 0, -1, 0);
+        while(!witness.heap.isEmpty() && settled < maxSettled)
+        {
+            e = witness.heap.pop();
+            y = (int)e;
+            d = (int)(e >> 32);
+            if(d != witness.dist(y))
+                continue;
+            if(d > limit)
+                break;
+            ++settled;
+            if(target[y] == stamp && pos[y] > from && --targets == 0)
+                break;
+            hops = witness.edge(y);
+            if(hops == maxHops)
+                continue;
+            for(i = 0; i < deg[y]; ++i)
+            {
+                z = nbr[y][i];
+                if(z == v || d + wgt[y][i] > limit) //Nothing past limit can be a witness
+                    continue;
+                if(d + wgt[y][i] < witness.dist(z))
+                    witness.reach(z, d + wgt[y][i], y, hops + 1);
+            }
+        }
+    }//End of witnessSearch Method
+
+    //addEdge Method - adds u->x of weight w through m to u's list, or lowers the edge already there,
+    //returns 1 if the list got longer
+    private static int addEdge(int u, int x, int w, int m, int[][] nbr, int[][] wgt, int[][] mid, int[] deg)
+    {
+        for(int i = 0; i < deg[u]; ++i)
+        {
+            if(nbr[u][i] == x)
+            {
+                if(w < wgt[u][i])
+                {
+                    wgt[u][i] = w;
+                    mid[u][i] = m;
+                }
+                return 0;
+            }
+        }
+        if(deg[u] == nbr[u].length)
+        {
+            nbr[u] = Arrays.copyOf(nbr[u], 2 * deg[u]);
+            wgt[u] = Arrays.copyOf(wgt[u], 2 * deg[u]);
+            mid[u] = Arrays.copyOf(mid[u], 2 * deg[u]);
+        }
+        nbr[u][deg[u]] = x;
+        wgt[u][deg[u]] = w;
+        mid[u][deg[u]] = m;
+        ++deg[u];
+        return 1;
+    }//End of addEdge Method
+
+    //removeEdge Method - takes u->x out of u's list by moving the last entry into its place
+    private static void removeEdge(int u, int x, int[][] nbr, int[][] wgt, int[][] mid, int[] deg)
+    {
+        for(int i = 0; i < deg[u]; ++i)
+        {
+            if(nbr[u][i] == x)
+            {
+                --deg[u];
+                nbr[u][i] = nbr[u][deg[u]];
+                wgt[u][i] = wgt[u][deg[u]];
+                mid[u][i] = mid[u][deg[u]];
+                return;
+            }
+        }
+    }
+
+    public int upwardEdgeCount()
+    {
+        return upTargets.length;
+    }
+
+    //shortestPath Method - searches up from s and up from t, taking whichever side has the smaller key next,
+    //until neither side can improve on the best meeting point found. Each query takes its own pair of scratch
+    //arrays, so queries can run on several threads at once
+    public PathResult shortestPath(int s, int t)
+    {
+        int best = Integer.MAX_VALUE, meet = -1, settled = 0, v, u, d, i, other;
+        long e;
+        SearchScratch side;
+
+        if(s == t)
+            return new PathResult(0, new int[] {s}, 0);
+        SearchScratch[] pair = scratch.poll();
+        if(pair == null)
+            pair = new SearchScratch[] {new SearchScratch(V), new SearchScratch(V)};
+        SearchScratch forward = pair[0], backward = pair[1];
+        forward.reset();
+        backward.reset();
+        forward.reach(s, 0, -1, -1);
+        backward.reach(t, 0, -1, -1);
+        while(true)
+        {
+            if(forward.heap.isEmpty())
+                side = backward;
+            else if(backward.heap.isEmpty())
+                side = forward;
+            else
+                side = forward.heap.peek() <= backward.heap.peek() ? forward : backward;
+            if(side.heap.isEmpty() || (int)(side.heap.peek() >> 32) >= best)
+                break;
+
+            e = side.heap.pop();
+            v = (int)e;
+            d = (int)(e >> 32);
+            if(d != side.dist(v))
+                continue;
+            ++settled;
+            other = (side == forward ? backward : forward).dist(v);
+            if(other != Integer.MAX_VALUE && d + other < best)
+            {
+                best = d + other;
+                meet = v;
+            }
+            if(stalled(side, v, d))
+                continue;
+            for(i = upOffsets[v]; i < upOffsets[v+1]; ++i)
+            {
+                u = upTargets[i];
+                if(d + upWeights[i] < side.dist(u))
+                    side.reach(u, d + upWeights[i], v, i);
+            }
+        }
+        PathResult r = meet == -1 ? new PathResult(Integer.MAX_VALUE, new int[0], settled)
+                                  : new PathResult(best, unpack(s, meet, forward, backward), settled);
+        scratch.offer(pair);
+        return r;
+    }//End of shortestPath Method
+
+    //stalled Method - stall on demand: v need not be searched on from if a vertex ranked above it that this
+    //side has already reached gives a shorter way to v, because no shortest path then goes up through v
+    private boolean stalled(SearchScratch side, int v, int d)
+    {
+        int du;
+        for(int i = upOffsets[v]; i < upOffsets[v+1]; ++i)
+        {
+            du = side.dist(upTargets[i]);
+            if(du != Integer.MAX_VALUE && du + upWeights[i] < d)
+                return true;
+        }
+        return false;
+    }
+
+    //unpack Method - the original vertices from s to t through meet, replacing each shortcut a--b through m
+    //with a--m and m--b until only edges of the graph are left
+    private int[] unpack(int s, int meet, SearchScratch forward, SearchScratch backward)
+    {
+        int n = 0, top = 0, v, a, b, i, m;
+        int[] hops = new int[16], stack = new int[16], path = new int[16];
+
+        //The up-down route: s up to meet from the forward parents, then meet down to t from the backward ones
+        for(v = meet; v != s; v = forward.parent(v))
+            hops = push(hops, n++, v);
+        hops = push(hops, n++, s);
+        for(i = 0; i < n/2; ++i)
+        {
+            a = hops[i];
+            hops[i] = hops[n-1-i];
+            hops[n-1-i] = a;
+        }
+        for(v = meet; backward.parent(v) != -1; v = backward.parent(v))
+            hops = push(hops, n++, backward.parent(v));
+
+        int len = 0;
+        path = push(path, len++, s);
+        for(int h = n - 1; h > 0; --h)
+        {
+            stack = push(stack, top++, hops[h]);
+            stack = push(stack, top++, hops[h-1]);
+        }
+        //Pairs come off the stack in route order, and a pair's two halves are pushed so the first comes off first
+        while(top > 0)
+        {
+            a = stack[--top];
+            b = stack[--top];
+            m = upMiddle[edgeBetween(a, b)];
+            if(m == -1)
+                path = push(path, len++, b);
+            else
+            {
+                stack = push(stack, top++, b);
+                stack = push(stack, top++, m);
+                stack = push(stack, top++, m);
+                stack = push(stack, top++, a);
+            }
+        }
+        return Arrays.copyOf(path, len);
+    }//End of unpack Method
+
+    private static int[] push(int[] a, int n, int x)
+    {
+        if(n == a.length)
+            a = Arrays.copyOf(a, 2 * n);
+        a[n] = x;
+        return a;
+    }
+
+    //edgeBetween Method - index of the upward edge joining a and b, kept with whichever has the lower rank
+    private int edgeBetween(int a, int b)
+    {
+        if(rank[a] > rank[b])
+        {
+            int x = a;
+            a = b;
+            b = x;
+        }
+        int lo = upOffsets[a], hi = upOffsets[a+1] - 1, mid;
+        while(lo <= hi)
+        {
+            mid = (lo + hi) >>> 1;
+            if(upTargets[mid] < b)
+                lo = mid + 1;
+            else if(upTargets[mid] > b)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        throw new IllegalStateException("No edge between " + a + " and " + b + " in the hierarchy");
+    }
+
+    //loadOrBuild Method - loads the hierarchy saved for graphFile, or builds and saves it if there is none
+    //or it was made for a different graph. The hierarchy lives in graphFile + ".ch"
+    public static ContractionHierarchy loadOrBuild(Graph g, String graphFile) throws IOException
+    {
+        String file = graphFile + ".ch";
+        if(Files.exists(Paths.get(file)))
+        {
+            try
+            {
+                return load(g, file);
+            }
+            catch(IOException ex)
+            {
+                //Out of date or damaged, made again below
+            }
+        }
+        ContractionHierarchy ch = build(g);
+        ch.save(file);
+        return ch;
+    }//End of loadOrBuild Method
+
+    //save Method - writes the ranks and upward edges with a checksum, tagged with a fingerprint of the graph
+    public void save(String fileName) throws IOException
+    {
+        CRC32C crc = new CRC32C();
+        ByteBuffer b = ByteBuffer.allocateDirect(1 << 20);
+
+        try(FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            b.putInt(MAGIC).putInt(VERSION).putInt(V).putInt(g.targets().length).putLong(GraphSnapshot.fingerprint(g)).putInt(upTargets.length);
+            GraphSnapshot.writeInts(channel, b, rank, crc);
+            GraphSnapshot.writeInts(channel, b, upOffsets, crc);
+            GraphSnapshot.writeInts(channel, b, upTargets, crc);
+            GraphSnapshot.writeInts(channel, b, upWeights, crc);
+            GraphSnapshot.writeInts(channel, b, upMiddle, crc);
+            GraphSnapshot.flush(channel, b, crc);
+            b.putLong(crc.getValue());
+            b.flip();
+            while(b.hasRemaining())
+                channel.write(b);
+        }
+    }//End of save Method
+
+    //load Method - reads a hierarchy written by save, checking it belongs to g
+    public static ContractionHierarchy load(Graph g, String fileName) throws IOException
+    {
+        int V = g.vertexCount(), m;
+        long pos;
+        CRC32C crc = new CRC32C();
+
+        try(FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ))
+        {
+            if(channel.size() < HEADER + 8)
+                throw new IOException(fileName + " is too short to be a hierarchy file");
+            MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+            if(head.getInt(0) != MAGIC || head.getInt(4) != VERSION)
+                throw new IOException(fileName + " is not a version " + VERSION + " hierarchy file");
+            if(head.getInt(8) != V || head.getInt(12) != g.targets().length || head.getLong(16) != GraphSnapshot.fingerprint(g))
+                throw new IOException(fileName + " was made for a different graph");
+            m = head.getInt(24);
+            if(m < 0 || channel.size() != HEADER + 4L*(V+1) + 4L*(V+2) + 12L*m + 8)
+                throw new IOException(fileName + " has the wrong length for a hierarchy file");
+            crc.update(head);
+
+            int[] rank = new int[V+1], upOffsets = new int[V+2];
+            int[] upTargets = new int[m], upWeights = new int[m], upMiddle = new int[m];
+            pos = GraphSnapshot.readInts(channel, HEADER, rank, crc);
+            pos = GraphSnapshot.readInts(channel, pos, upOffsets, crc);
+            pos = GraphSnapshot.readInts(channel, pos, upTargets, crc);
+            pos = GraphSnapshot.readInts(channel, pos, upWeights, crc);
+            pos = GraphSnapshot.readInts(channel, pos, upMiddle, crc);
+            if(crc.getValue() != channel.map(FileChannel.MapMode.READ_ONLY, pos, 8).getLong())
+                throw new IOException(fileName + " failed its checksum, the hierarchy file is corrupt");
+            return new ContractionHierarchy(g, rank, upOffsets, upTargets, upWeights, upMiddle);
+        }
+    }//End of load Method
+
+}//End of ContractionHierarchy Class
+
+//SptCache Class - a thread safe cache of shortest path trees keyed by start vertex
+//Trees are kept in least recently used order and the oldest are dropped once their arrays take more than
+//the memory budget. If several threads ask for a tree that is not cached yet, the first works it out and
+//the others wait for its answer, so each tree is only worked out once. The cached SptResult arrays are
+//shared by every caller and must not be changed
+class SptCache
+{
+    private final long maxBytes;
+    private final LinkedHashMap<Integer, SptResult> trees = new LinkedHashMap<>(16, 0.75f, true); // in access order, oldest first
+    private final HashMap<Integer, CompletableFuture<SptResult>> pending = new HashMap<>();       // trees being worked out
+    private Graph g;
+    private long generation;    // goes up whenever the graph changes, so trees started on an old graph are not kept
+    private long bytes;         // memory taken by the cached trees
+    private long hits, misses, waits, evictions;
+
+    public SptCache(Graph g, long maxBytes)
+    {
+        this.g = g;
+        this.maxBytes = maxBytes;
+    }
+
+    //get Method - the shortest path tree from s, from the cache if it is there
+    public SptResult get(int s)
+    {
+        CompletableFuture<SptResult> f;
+        Graph graph = null;
+        long gen = 0;
+
+        //Only decides what to do under the lock, so hits never wait behind a tree being worked out
+        synchronized(this)
+        {
+            SptResult r = trees.get(s);
+            if(r != null)
+            {
+                ++hits;
+                return r;
+            }
+            f = pending.get(s);
+            if(f != null)
+                ++waits;
+            else
+            {
+                ++misses;
+                f = new CompletableFuture<>();
+                pending.put(s, f);
+                graph = g;
+                gen = generation;
+            }
+        }
+        if(graph != null) //This thread owns the future and works the tree out
+            return compute(s, f, graph, gen);
+        return f.join();
+    }//End of get Method
+
+    //compute Method - works out the tree outside the lock, then caches it and hands it to any waiting threads
+    private SptResult compute(int s, CompletableFuture<SptResult> f, Graph graph, long gen)
+    {
+        SptResult r;
+        try
+        {
+            r = graph.SPT_Dijkstra(s);
+        }
+        catch(RuntimeException | Error ex)
+        {
+            synchronized(this)
+            {
+                pending.remove(s, f);
+            }
+            f.completeExceptionally(ex);
+            throw ex;
+        }
+        synchronized(this)
+        {
+            pending.remove(s, f);
+            if(gen == generation)
+            {
+                trees.put(s, r);
+                bytes += size(r);
+                evict();
+            }
+        }
+        f.complete(r);
+        return r;
+    }//End of compute Method
+
+    //evict Method - drops least recently used trees until the cache is within its budget
+    private void evict()
+    {
+        Iterator<Map.Entry<Integer, SptResult>> it = trees.entrySet().iterator();
+        while(bytes > maxBytes && it.hasNext())
+        {
+            bytes -= size(it.next().getValue());
+            it.remove();
+            ++evictions;
+        }
+    }
+
+    //size Method - rough memory taken by a cached tree, its two arrays plus the objects around them
+    private static long size(SptResult r)
+    {
+        return 4L * (r.dist.length + r.parent.length) + 96;
+    }
+
+    //invalidate Method - forgets every cached tree, for when the graph has changed
+    //Trees being worked out when this is called are still handed to the threads waiting for them but are not cached
+    public synchronized void invalidate()
+    {
+        trees.clear();
+        pending.clear();
+        bytes = 0;
+        ++generation;
+    }
+
+    //setGraph Method - answers later requests from a new graph, dropping the trees of the old one
+    public synchronized void setGraph(Graph g)
+    {
+        this.g = g;
+        invalidate();
+    }
+
+    public synchronized long hitCount()
+    {
+        return hits;
+    }
+
+    public synchronized long missCount()
+    {
+        return misses;
+    }
+
+    //waitCount Method - requests that found the tree already being worked out and waited for it
+    public synchronized long waitCount()
+    {
+        return waits;
+    }
+
+    public synchronized long evictionCount()
+    {
+        return evictions;
+    }
+
+    public synchronized int size()
+    {
+        return trees.size();
+    }
+
+    public synchronized long bytesUsed()
+    {
+        return bytes;
+    }
+
+    public synchronized String toString()
+    {
+        long requests = hits + misses + waits;
+        return "SptCache: " + trees.size() + " trees, " + bytes / 1024 + " KB of " + maxBytes / 1024 + " KB, "
+            + hits + " hits, " + waits + " waits, " + misses + " misses, " + evictions + " evictions"
+            + (requests > 0 ? String.format(", hit rate %.1f%%", 100.0 * (hits + waits) / requests) : "");
+    }
+
+}//End of SptCache Class
+
+//EdgeChangeListener Interface - told about each change made to a DynamicGraph, after it has been made
+//oldWeight is Integer.MAX_VALUE for a new edge and newWeight is Integer.MAX_VALUE for a removed one
+interface EdgeChangeListener {
+    void edgeChanged(int u, int v, int oldWeight, int newWeight);
+}//End of Interface
+
+//DynamicGraph Class - an undirected graph whose edges can be added, reweighted and removed
+//Starts as a copy of a Graph with one edge per pair of vertices (the lightest of repeated edges) and no
+//self loops. Each vertex keeps growable arrays of its neighbours and weights. Weights must not be negative,
+//as the shortest path trees kept by DynamicSpt need that. Listeners such as DynamicSpt and DynamicMst are
+//told about every change so they can repair their results. Not safe to change from several threads at once
+class DynamicGraph
+{
+    private final int V;
+    private final int[][] nbr, wgt;   // nbr[v][i]--(wgt[v][i]) for i < deg[v]
+    private final int[] deg;
+    private int E;
+    private EdgeChangeListener[] listeners = new EdgeChangeListener[0];
+
+    public DynamicGraph(Graph g)
+    {
+        int v, i, n;
+        int[] offsets = g.offsets(), targets = g.targets(), weights = g.weights();
+
+        if(g.minWeight() < 0)
+            throw new IllegalArgumentException("DynamicGraph needs non negative edge weights");
+        V = g.vertexCount();
+        nbr = new int[V+1][];
+        wgt = new int[V+1][];
+        deg = new int[V+1];
+        for(v = 1; v <= V; ++v)
+        {
+            n = Math.max(offsets[v+1] - offsets[v], 1);
+            nbr[v] = new int[n];
+            wgt[v] = new int[n];
+            //Each list is sorted by target, so repeated edges are next to each other
+            for(i = offsets[v]; i < offsets[v+1]; ++i)
+            {
+                if(targets[i] == v)
+                    continue;
+                if(deg[v] > 0 && nbr[v][deg[v]-1] == targets[i])
+                    wgt[v][deg[v]-1] = Math.min(wgt[v][deg[v]-1], weights[i]);
+                else
+                {
+                    nbr[v][deg[v]] = targets[i];
+                    wgt[v][deg[v]] = weights[i];
+                    ++deg[v];
+                    if(v < targets[i])
+                        ++E;
+                }
+            }
+        }
+    }
+
+    public int vertexCount()
+    {
+        return V;
+    }
+
+    public int edgeCount()
+    {
+        return E;
+    }
+
+    public int degree(int v)
+    {
+        return deg[v];
+    }
+
+    //neighbour Method - the i'th neighbour of v, for i < degree(v)
+    public int neighbour(int v, int i)
+    {
+        return nbr[v][i];
+    }
+
+    //weight Method - the weight of the edge to the i'th neighbour of v
+    public int weight(int v, int i)
+    {
+        return wgt[v][i];
+    }
+
+    //edgeWeight Method - the weight of u--v, Integer.MAX_VALUE if there is no such edge
+    public int edgeWeight(int u, int v)
+    {
+        int i = find(u, v);
+        return i < 0 ? Integer.MAX_VALUE : wgt[u][i];
+    }
+
+    private int find(int u, int v)
+    {
+        for(int i = 0; i < deg[u]; ++i)
+            if(nbr[u][i] == v)
+                return i;
+        return -1;
+    }
+
+    public void addListener(EdgeChangeListener l)
+    {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = l;
+    }
+
+    //setEdge Method - adds the edge u--v with weight w, or changes its weight if it is already there
+    public void setEdge(int u, int v, int w)
+    {
+        if(u < 1 || u > V || v < 1 || v > V || u == v)
+            throw new IllegalArgumentException("No edge " + u + "--" + v + " in a graph of " + V + " vertices");
+        if(w < 0 || w == Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Edge weight " + w + " is out of range");
+        int old = edgeWeight(u, v);
+        if(old == w)
+            return;
+        if(old == Integer.MAX_VALUE)
+        {
+            append(u, v, w);
+            append(v, u, w);
+            ++E;
+        }
+        else
+        {
+            wgt[u][find(u, v)] = w;
+            wgt[v][find(v, u)] = w;
+        }
+        for(EdgeChangeListener l : listeners)
+            l.edgeChanged(u, v, old, w);
+    }//End of setEdge Method
+
+    //removeEdge Method - takes the edge u--v out of the graph, if it is there
+    public void removeEdge(int u, int v)
+    {
+        int old = edgeWeight(u, v);
+        if(old == Integer.MAX_VALUE)
+            return;
+        remove(u, find(u, v));
+        remove(v, find(v, u));
+        --E;
+        for(EdgeChangeListener l : listeners)
+            l.edgeChanged(u, v, old, Integer.MAX_VALUE);
+    }
+
+    private void append(int u, int v, int w)
+    {
+        if(deg[u] == nbr[u].length)
+        {
+            nbr[u] = Arrays.copyOf(nbr[u], 2 * deg[u]);
+            wgt[u] = Arrays.copyOf(wgt[u], 2 * deg[u]);
+        }
+        nbr[u][deg[u]] = v;
+        wgt[u][deg[u]] = w;
+        ++deg[u];
+    }
+
+    //remove Method - drops entry i of u's list by moving the last entry into its place
+    private void remove(int u, int i)
+    {
+        --deg[u];
+        nbr[u][i] = nbr[u][deg[u]];
+        wgt[u][i] = wgt[u][deg[u]];
+    }
+
+    //edges Method - every edge once, from its smaller end
+    public EdgeList edges()
+    {
+        EdgeList edges = new EdgeList(E);
+        for(int v = 1; v <= V; ++v)
+            for(int i = 0; i < deg[v]; ++i)
+                if(v < nbr[v][i])
+                    edges.add(v, nbr[v][i], wgt[v][i]);
+        return edges;
+    }
+
+    //toGraph Method - a Graph of the edges as they are now, for the algorithms that work on a fixed graph
+    public Graph toGraph()
+    {
+        return new Graph(V, edges(), false);
+    }
+
+}//End of DynamicGraph Class
+
+//DynamicSpt Class - a shortest path tree from s kept up to date as a DynamicGraph changes
+//A new edge or a lighter one can only shorten paths, so the ends of the edge are relaxed across it and
+//Dijkstra's algorithm carries on from whichever improved, touching only the vertices whose distance goes down.
+//A heavier or removed edge only matters if it is in the tree. Then the subtree hanging below it is the only
+//part whose distances can change: those vertices are cleared, each takes the best distance offered by its
+//neighbours outside the subtree, and Dijkstra's algorithm settles the subtree from there. Either way the work
+//depends on the part of the tree that changes rather than on the size of the graph
+class DynamicSpt implements EdgeChangeListener
+{
+    private final DynamicGraph g;
+    private final int s;
+    private final int[] dist;       // dist[v] = length of the shortest path from s, Integer.MAX_VALUE if v cannot be reached
+    private final int[] parent;     // parent[v] = the vertex before v on that path, 0 for s and unreached vertices
+    private final int[] mark;       // mark[v] == repair for the vertices of the subtree being repaired
+    private int[] stack;
+    private int repair, touched;
+    private final LongHeap heap = new LongHeap();
+
+    //Works out the tree from s and starts following the changes to g
+    public DynamicSpt(DynamicGraph g, int s)
+    {
+        int V = g.vertexCount();
+        this.g = g;
+        this.s = s;
+        dist = new int[V+1];
+        parent = new int[V+1];
+        mark = new int[V+1];
+        stack = new int[16];
+        Arrays.fill(dist, 1, V+1, Integer.MAX_VALUE);
+        dist[s] = 0;
+        heap.push(s);
+        propagate();
+        g.addListener(this);
+    }
+
+    public int dist(int v)
+    {
+        return dist[v];
+    }
+
+    public int parent(int v)
+    {
+        return parent[v];
+    }
+
+    //touched Method - the number of vertices the last change relaxed or reset, how far the repair reached
+    public int touched()
+    {
+        return touched;
+    }
+
+    //result Method - a copy of the tree as it is now
+    public SptResult result()
+    {
+        return new SptResult(dist.clone(), parent.clone());
+    }
+
+    public void edgeChanged(int u, int v, int oldWeight, int newWeight)
+    {
+        touched = 0;
+        if(newWeight < oldWeight)
+        {
+            relax(u, v, newWeight);
+            relax(v, u, newWeight);
+            propagate();
+        }
+        else if(parent[v] == u)
+            rebuild(v);
+        else if(parent[u] == v)
+            rebuild(u);
+    }
+
+    //relax Method - offers the path to v through u along an edge of weight w
+    private void relax(int u, int v, int w)
+    {
+        if(dist[u] != Integer.MAX_VALUE && dist[u] + w < dist[v])
+        {
+            dist[v] = dist[u] + w;
+            parent[v] = u;
+            heap.push(((long)dist[v] << 32) | v);
+            ++touched;
+        }
+    }
+
+    //propagate Method - Dijkstra's algorithm from the vertices on the heap, only going where distances improve
+    private void propagate()
+    {
+        int x, d, i;
+        long e;
+        while(!heap.isEmpty())
+        {
+            e = heap.pop();
+            x = (int)e;
+            d = (int)(e >> 32);
+            if(d != dist[x]) //Left behind when x was improved again
+                continue;
+            for(i = 0; i < g.degree(x); ++i)
+                relax(x, g.neighbour(x, i), g.weight(x, i));
+        }
+    }
+
+    //rebuild Method - works out the distances of the subtree below c again after the edge above c got heavier or went
+    private void rebuild(int c)
+    {
+        int n = 0, top = 0, x, y, i;
+
+        if(++repair == 0) //Marks have wrapped round, clear them once
+        {
+            Arrays.fill(mark, 0);
+            repair = 1;
+        }
+        //Collects the subtree, the children of x being the neighbours whose parent is x
+        stack = push(stack, top++, c);
+        mark[c] = repair;
+        while(n < top)
+        {
+            x = stack[n++];
+            for(i = 0; i < g.degree(x); ++i)
+            {
+                y = g.neighbour(x, i);
+                if(parent[y] == x && mark[y] != repair)
+                {
+                    mark[y] = repair;
+                    stack = push(stack, top++, y);
+                }
+            }
+        }
+        for(i = 0; i < top; ++i)
+        {
+            dist[stack[i]] = Integer.MAX_VALUE;
+            parent[stack[i]] = 0;
+        }
+        touched = top;
+
+        //Each vertex of the subtree starts from its best neighbour outside it
+        for(int k = 0; k < top; ++k)
+        {
+            x = stack[k];
+            for(i = 0; i < g.degree(x); ++i)
+            {
+                y = g.neighbour(x, i);
+                if(mark[y] != repair && dist[y] != Integer.MAX_VALUE && dist[y] + g.weight(x, i) < dist[x])
+                {
+                    dist[x] = dist[y] + g.weight(x, i);
+                    parent[x] = y;
+                }
+            }
+            if(dist[x] != Integer.MAX_VALUE)
+                heap.push(((long)dist[x] << 32) | x);
+        }
+        propagate();
+    }//End of rebuild Method
+
+    private static int[] push(int[] a, int n, int x)
+    {
+        if(n == a.length)
+            a = Arrays.copyOf(a, 2 * n);
+        a[n] = x;
+        return a;
+    }
+
+}//End of DynamicSpt Class
+
+//DynamicMst Class - a minimum spanning forest kept up to date as a DynamicGraph changes
+//The forest is held as a parent array, each vertex pointing up its tree through an edge of weight up[v].
+//A new or lighter edge u--v that is not in the forest is checked with the cycle property: if u and v are in
+//different trees it joins them, otherwise it replaces the heaviest edge on the tree path between them if that
+//edge is heavier. A lighter tree edge keeps the forest minimal. A heavier or removed tree edge is cut, and by
+//the cut property the lightest edge between the subtree below it and the rest of its tree joins them again,
+//possibly the same edge. The path check climbs from u and v to where they meet and the cut repair looks at
+//the edges of the subtree below the cut, so the work depends on the part of the forest involved
+class DynamicMst implements EdgeChangeListener
+{
+    private final DynamicGraph g;
+    private final int[] parent;     // parent[v] = the next vertex up v's tree, 0 for the root of a tree
+    private final int[] up;         // up[v] = weight of the edge v--parent[v]
+    private final int[] mark;
+    private int[] stack = new int[16];
+    private int stamp, weight;
+
+    //Works out a minimum spanning forest with Filter-Kruskal and starts following the changes to g
+    public DynamicMst(DynamicGraph g)
+    {
+        int V = g.vertexCount();
+        this.g = g;
+        MstResult mst = MstResult.fromEdges(V, 1, Kruskal.minimumForest(V, g.edges()));
+        parent = mst.parent;
+        weight = mst.weight;
+        up = new int[V+1];
+        mark = new int[V+1];
+        for(int v = 1; v <= V; ++v)
+            if(parent[v] != 0)
+                up[v] = g.edgeWeight(v, parent[v]);
+        g.addListener(this);
+    }
+
+    public int weight()
+    {
+        return weight;
+    }
+
+    //result Method - a copy of the forest as it is now, each tree rooted wherever the changes have left its root
+    public MstResult result()
+    {
+        return new MstResult(parent.clone(), weight);
+    }
+
+    public void edgeChanged(int u, int v, int oldWeight, int newWeight)
+    {
+        int c = parent[v] == u ? v : parent[u] == v ? u : 0;  // the lower end if u--v is a tree edge
+        if(c != 0)
+        {
+            if(newWeight <= oldWeight)
+            {
+                up[c] = newWeight;
+                weight += newWeight - oldWeight;
+            }
+            else
+            {
+                parent[c] = 0;
+                weight -= oldWeight;
+                reconnect(c);
+            }
+        }
+        else if(newWeight < oldWeight)
+        {
+            int h = heaviestOnPath(u, v);
+            if(h == 0) //Different trees
+                link(u, v, newWeight);
+            else if(up[h] > newWeight)
+            {
+                parent[h] = 0;
+                weight -= up[h];
+                link(u, v, newWeight);
+            }
+        }
+    }
+
+    //heaviestOnPath Method - the lower end of the heaviest edge on the tree path from u to v, 0 if they are in different trees
+    private int heaviestOnPath(int u, int v)
+    {
+        int x, meet, best = 0;
+
+        nextStamp();
+        for(x = u; x != 0; x = parent[x])
+            mark[x] = stamp;
+        for(meet = v; meet != 0 && mark[meet] != stamp; meet = parent[meet])
+            ;
+        if(meet == 0)
+            return 0;
+        for(x = u; x != meet; x = parent[x])
+            if(best == 0 || up[x] > up[best])
+                best = x;
+        for(x = v; x != meet; x = parent[x])
+            if(best == 0 || up[x] > up[best])
+                best = x;
+        return best;
+    }
+
+    //link Method - joins u's tree to v's through the edge u--v, making u the root of its tree first
+    private void link(int u, int v, int w)
+    {
+        int x = u, prev = 0, prevW = 0, next, nextW;
+        //Turns the edges from u up to its root round
+        while(x != 0)
+        {
+            next = parent[x];
+            nextW = up[x];
+            parent[x] = prev;
+            up[x] = prevW;
+            prev = x;
+            prevW = nextW;
+            x = next;
+        }
+        parent[u] = v;
+        up[u] = w;
+        weight += w;
+    }
+
+    //reconnect Method - joins the subtree rooted at c back to the rest of its old tree by the lightest edge between them
+    private void reconnect(int c)
+    {
+        int n = 0, top = 0, x, y, i, bestX = 0, bestY = 0, bestW = Integer.MAX_VALUE;
+
+        nextStamp();
+        stack[top++] = c;
+        mark[c] = stamp;
+        while(n < top)
+        {
+            x = stack[n++];
+            for(i = 0; i < g.degree(x); ++i)
+            {
+                y = g.neighbour(x, i);
+                if(parent[y] == x && mark[y] != stamp)
+                {
+                    mark[y] = stamp;
+                    if(top == stack.length)
+                        stack = Arrays.copyOf(stack, 2 * top);
+                    stack[top++] = y;
+                }
+            }
+        }
+        //Any edge out of the subtree goes to the rest of the same tree, as the tree spanned the whole component
+        for(int k = 0; k < top; ++k)
+        {
+            x = stack[k];
+            for(i = 0; i < g.degree(x); ++i)
+            {
+                y = g.neighbour(x, i);
+                if(mark[y] != stamp && g.weight(x, i) < bestW)
+                {
+                    bestX = x;
+                    bestY = y;
+                    bestW = g.weight(x, i);
+                }
+            }
+        }
+        if(bestX != 0)
+            link(bestX, bestY, bestW);
+    }//End of reconnect Method
+
+    private void nextStamp()
+    {
+        if(++stamp == 0) //Marks have wrapped round, clear them once
+        {
+            Arrays.fill(mark, 0);
+            stamp = 1;
+        }
+    }
+
+}//End of DynamicMst Class
+
+//BfsBenchmark Class - times breadthFirstParallel against breadthFirst on one graph
+//Usage: java BfsBenchmark <graph file or snapshot> <start vertex> [runs]
+//Reports the best time of each run count at 1, 2, 4, 8 ... threads and checks every result against breadthFirst
+class BfsBenchmark
+{
+    public static void main(String[] args) throws IOException
+    {
+        if(args.length < 2)
+        {
+            System.out.println("Usage: java BfsBenchmark <graph file or snapshot> <start vertex> [runs]");
+            return;
+        }
+        Graph g = GraphSnapshot.load(args[0]);
+        int s = Integer.parseInt(args[1]);
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int maxThreads = Math.max(8, Runtime.getRuntime().availableProcessors());
+
+        BfsResult expected = null;
+        long sequential = Long.MAX_VALUE;
+        for(int r = 0; r < runs; ++r)
+        {
+            long start = System.nanoTime();
+            expected = g.breadthFirst(s);
+            sequential = Math.min(sequential, System.nanoTime() - start);
+        }
+        System.out.println("breadthFirst: " + sequential / 1000 + " us");
+        System.out.println("Threads \t Time (us) \t Speedup vs 1 thread \t Speedup vs breadthFirst");
+
+        long single = 0;
+        for(int threads = 1; threads <= maxThreads; threads *= 2)
+        {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long best = Long.MAX_VALUE;
+            for(int r = 0; r < runs; ++r)
+            {
+                long start = System.nanoTime();
+                BfsResult result = g.breadthFirstParallel(s, pool);
+                best = Math.min(best, System.nanoTime() - start);
+                if(!Arrays.equals(result.d, expected.d))
+                    throw new IllegalStateException("breadthFirstParallel gave different distances with " + threads + " threads");
+            }
+            pool.shutdown();
+            if(threads == 1)
+                single = best;
+            System.out.printf("%7d \t %9d \t %19.2f \t %23.2f%n", threads, best / 1000, (double)single / best, (double)sequential / best);
+        }
+    }
+}//End of BfsBenchmark Class
+
 public class GraphLists {
     public static void main(String[] args) throws IOException
     {
@@ -598,14 +4880,15 @@ public class GraphLists {
         scanner.close();
            
         
-        Graph g = new Graph(fname);
+        Graph g = GraphSnapshot.load(fname);
+        TraversalListener trace = new PrintingTraversalListener();
        
         g.display();
 
-        g.DF(s);
-        g.breadthFirst(s);
-        g.MST_Prim(s);
-        g.showMST();      
-        g.SPT_Dijkstra(s);    
+        g.DF(s, trace);
+        g.breadthFirst(s, trace);
+        MstResult mst = g.MST_Prim(s, trace);
+        g.showMST(mst);      
+        g.SPT_Dijkstra(s, trace);    
     }
 }